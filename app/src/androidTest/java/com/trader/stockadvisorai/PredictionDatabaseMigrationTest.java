@@ -0,0 +1,105 @@
+package com.trader.stockadvisorai;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteConstraintException;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.room.Room;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/** Upgrades databases built from the exported schemas in app/schemas. */
+@RunWith(AndroidJUnit4.class)
+public class PredictionDatabaseMigrationTest {
+
+    private static final String DB = "migration-test.db";
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), PredictionDatabase.class);
+
+    private static ContentValues v1Row(String symbol, long timestamp) {
+        ContentValues row = new ContentValues();
+        row.put("uid", "uid123");
+        row.put("symbol", symbol);
+        row.put("currentPrice", 440.0);
+        row.put("quantity", 5);
+        row.put("invested", 2200.0);
+        row.put("yesterdayClose", 438.0);
+        row.put("predictedPrice", 450.0);
+        row.put("advice", "Buy");
+        row.put("timestamp", timestamp);
+        row.put("synced", 1);
+        return row;
+    }
+
+    @Test
+    public void migrate1To2KeepsRowsWithoutDocId() throws Exception {
+        try (SupportSQLiteDatabase db = helper.createDatabase(DB, 1)) {
+            db.insert("predictions", SQLiteDatabase.CONFLICT_ABORT, v1Row("ITC.NS", 1_000));
+            db.insert("predictions", SQLiteDatabase.CONFLICT_ABORT, v1Row("TCS.NS", 2_000));
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(DB, 2, true, PredictionDatabase.MIGRATION_1_2);
+             Cursor cursor = db.query("SELECT symbol, docId, synced FROM predictions ORDER BY timestamp")) {
+            assertEquals(2, cursor.getCount());
+            cursor.moveToFirst();
+            assertEquals("ITC.NS", cursor.getString(0));
+            assertTrue(cursor.isNull(1));
+            assertEquals(1, cursor.getInt(2));
+        }
+    }
+
+    @Test
+    public void docIdIsUniqueAfterMigration() throws Exception {
+        helper.createDatabase(DB, 1).close();
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(DB, 2, true, PredictionDatabase.MIGRATION_1_2)) {
+            ContentValues row = v1Row("ITC.NS", 1_000);
+            row.put("docId", "abc_uid123_ITC.NS");
+            db.insert("predictions", SQLiteDatabase.CONFLICT_ABORT, row);
+            try {
+                db.insert("predictions", SQLiteDatabase.CONFLICT_ABORT, row);
+                fail("A second row with the same docId was accepted");
+            } catch (SQLiteConstraintException expected) {
+                // The unique index makes replays no-ops for insertAll's IGNORE strategy
+            }
+        }
+    }
+
+    @Test
+    public void roomOpensTheMigratedDatabase() throws Exception {
+        helper.createDatabase(DB, 1).close();
+        helper.runMigrationsAndValidate(DB, 2, true, PredictionDatabase.MIGRATION_1_2).close();
+
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        PredictionDatabase database = Room.databaseBuilder(context, PredictionDatabase.class, DB)
+                .addMigrations(PredictionDatabase.MIGRATIONS)
+                .build();
+        try {
+            StockResult stock = new StockResult("ITC.NS", 440, 5, 2200, 438, 450, "Buy");
+            List<PredictionEntity> entries = Arrays.asList(
+                    PredictionEntity.from("abc", stock, "uid123", 1_000));
+            PredictionDao dao = database.predictionDao();
+
+            assertNotEquals(-1L, (long) dao.insertAll(entries).get(0));
+            // Recording the same response again is ignored
+            assertEquals(-1L, (long) dao.insertAll(entries).get(0));
+        } finally {
+            database.close();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.trader.stockadvisorai;
+
+import android.os.Bundle;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/** Debug screen showing backend call latency percentiles from {@link NetworkStats}. */
+public class NetworkStatsActivity extends AppCompatActivity {
+
+    private static final String DUMP_FILE = "network_stats.txt";
+
+    private TextView statsText;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_network_stats);
+
+        statsText = findViewById(R.id.statsText);
+        Button refreshButton = findViewById(R.id.refreshButton);
+        Button dumpButton = findViewById(R.id.dumpButton);
+
+        refreshButton.setOnClickListener(v -> showStats());
+        dumpButton.setOnClickListener(v -> dumpStats());
+        showStats();
+    }
+
+    private void showStats() {
+        StringWriter out = new StringWriter();
+        try {
+            NetworkStats.dump(out);
+        } catch (IOException ignored) {
+            // StringWriter does not throw
+        }
+        statsText.setText(out.toString());
+    }
+
+    // 💾 Write the snapshot to app storage so it can be pulled with adb
+    private void dumpStats() {
+        File file = new File(getFilesDir(), DUMP_FILE);
+        try (Writer out = new FileWriter(file)) {
+            NetworkStats.dump(out);
+            Toast.makeText(this, "Saved to " + file.getAbsolutePath(), Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            Toast.makeText(this, "Dump failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
+        }
+    }
+}
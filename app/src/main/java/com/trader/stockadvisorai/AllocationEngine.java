@@ -0,0 +1,80 @@
+package com.trader.stockadvisorai;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recomputes a {@code /suggest-stocks} answer for a new amount on the device, from the
+ * {@code candidates} (every stock the server priced) of an earlier response. Mirrors the server
+ * step by step, in the same double arithmetic: stocks priced at most a fifth of the budget
+ * qualify, the budget is split evenly across all of them, and each buys as many whole shares as
+ * its split covers. Stocks whose split buys no share are left out but still count in the split.
+ */
+public final class AllocationEngine {
+
+    /** Same rule as the backend: suggest only stocks at most 20% of the budget. */
+    private static final int MAX_SHARE_DIVISOR = 5;
+
+    private AllocationEngine() {}
+
+    /**
+     * @param prices share price per candidate
+     * @return shares per candidate; zero for the ones the server would leave out
+     */
+    public static int[] allocate(double[] prices, double budget) {
+        int n = prices.length;
+        int[] quantities = new int[n];
+        double maxPerStock = budget / MAX_SHARE_DIVISOR;
+
+        int affordable = 0;
+        for (double price : prices) {
+            if (isAffordable(price, maxPerStock)) affordable++;
+        }
+        if (affordable == 0) return quantities;
+
+        double split = budget / affordable;
+        for (int i = 0; i < n; i++) {
+            if (isAffordable(prices[i], maxPerStock)) quantities[i] = (int) floorDiv(split, prices[i]);
+        }
+        return quantities;
+    }
+
+    /** The suggestions the server would return for {@code amount}, in candidate order. */
+    public static List<StockResult> reallocate(List<StockResult> candidates, double amount) {
+        int n = candidates.size();
+        double[] prices = new double[n];
+        for (int i = 0; i < n; i++) prices[i] = candidates.get(i).currentPrice;
+
+        int[] quantities = allocate(prices, amount);
+
+        List<StockResult> allocated = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            if (quantities[i] == 0) continue;
+            StockResult stock = candidates.get(i);
+            allocated.add(new StockResult(stock.symbol, roundPrice(prices[i]), quantities[i], stock.invested,
+                    stock.yesterdayClose, stock.predictedPrice, stock.advice));
+        }
+        return allocated;
+    }
+
+    private static boolean isAffordable(double price, double maxPerStock) {
+        return price > 0 && price <= maxPerStock;
+    }
+
+    // Python's float floor division, computed the way CPython does (e.g. 1 // 0.1 == 9.0, not 10)
+    static double floorDiv(double a, double b) {
+        double mod = a % b;
+        double div = (a - mod) / b;
+        if (mod != 0 && (b < 0) != (mod < 0)) div -= 1.0;
+        double floor = Math.floor(div);
+        if (div - floor > 0.5) floor += 1.0;
+        return floor;
+    }
+
+    // round(price, 2) as the server shows it: half-even on the exact binary value
+    static double roundPrice(double price) {
+        return new BigDecimal(price).setScale(2, RoundingMode.HALF_EVEN).doubleValue();
+    }
+}
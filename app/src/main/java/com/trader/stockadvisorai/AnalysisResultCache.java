@@ -0,0 +1,144 @@
+package com.trader.stockadvisorai;
+
+import android.content.Context;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.Nullable;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Portfolio analysis results keyed by the SHA-256 of the picked screenshot, so re-uploading an
+ * unchanged image is answered locally. Same layout as {@link SuggestionCache}: a small memory LRU
+ * in front of one file per hash (fetchedAt, the server's digest and the ETag on the first three
+ * lines). Entries go stale on {@link MarketHours} boundaries; a stale entry's digest and ETag
+ * still let the server answer with a 304. The server keys results by the hash of the re-encoded
+ * bytes it received, which is why its digest is kept next to ours.
+ *
+ * <p>{@link #get} and {@link #put} touch the disk, so call them off the main thread.
+ */
+public class AnalysisResultCache {
+
+    private static final String TAG = "AnalysisResultCache";
+    private static final int MEMORY_ENTRIES = 16;
+    private static final int MAX_DISK_ENTRIES = 48;
+
+    private static volatile AnalysisResultCache instance;
+
+    public static class Entry {
+        public final String json;
+        /** The server's name for this result in {@code /results/<digest>}. */
+        @Nullable public final String digest;
+        @Nullable public final String etag;
+        public final long fetchedAt;
+
+        Entry(String json, @Nullable String digest, @Nullable String etag, long fetchedAt) {
+            this.json = json;
+            this.digest = digest;
+            this.etag = etag;
+            this.fetchedAt = fetchedAt;
+        }
+
+        public boolean isFresh(long now) {
+            return now < MarketHours.expiryFor(fetchedAt);
+        }
+    }
+
+    private final LruCache<String, Entry> memory = new LruCache<>(MEMORY_ENTRIES);
+    private final File dir;
+
+    public static AnalysisResultCache get(Context context) {
+        if (instance == null) {
+            synchronized (AnalysisResultCache.class) {
+                if (instance == null) {
+                    instance = new AnalysisResultCache(new File(context.getApplicationContext().getCacheDir(), "analysis_results"));
+                }
+            }
+        }
+        return instance;
+    }
+
+    AnalysisResultCache(File dir) {
+        this.dir = dir;
+    }
+
+    @Nullable
+    public Entry get(String contentHash) {
+        Entry entry = memory.get(contentHash);
+        if (entry != null) return entry;
+
+        File file = new File(dir, contentHash + ".json");
+        if (!file.exists()) return null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            long fetchedAt = Long.parseLong(reader.readLine());
+            String digest = reader.readLine();
+            // Files from before the digest line have the ETag here; they are dropped like any bad file
+            if (!digest.isEmpty() && !digest.matches("[0-9a-f]{64}")) throw new IOException("No digest line");
+            String etag = reader.readLine();
+            StringBuilder json = new StringBuilder();
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                json.append(buffer, 0, read);
+            }
+            entry = new Entry(json.toString(), digest.isEmpty() ? null : digest,
+                    etag.isEmpty() ? null : etag, fetchedAt);
+            memory.put(contentHash, entry);
+            return entry;
+        } catch (IOException | NumberFormatException | NullPointerException e) {
+            Log.w(TAG, "Dropping unreadable cache entry " + contentHash, e);
+            file.delete();
+            return null;
+        }
+    }
+
+    public Entry put(String contentHash, String json, @Nullable String digest, @Nullable String etag) {
+        Entry entry = new Entry(json, digest, etag, System.currentTimeMillis());
+        memory.put(contentHash, entry);
+
+        if (!dir.exists() && !dir.mkdirs()) return entry;
+        File tmp = new File(dir, contentHash + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8)) {
+            writer.write(Long.toString(entry.fetchedAt));
+            writer.write('\n');
+            writer.write(digest != null ? digest : "");
+            writer.write('\n');
+            writer.write(etag != null ? etag : "");
+            writer.write('\n');
+            writer.write(json);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write cache entry " + contentHash, e);
+            tmp.delete();
+            return entry;
+        }
+        if (!tmp.renameTo(new File(dir, contentHash + ".json"))) tmp.delete();
+        trimDisk();
+        return entry;
+    }
+
+    /** The server confirmed our copy is current (304); restart its freshness window. */
+    public Entry revalidated(String contentHash, Entry entry) {
+        return put(contentHash, entry.json, entry.digest, entry.etag);
+    }
+
+    // Least recently written goes first; get() doesn't touch mtime, so this is close to FIFO
+    private void trimDisk() {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".json"));
+        if (files == null || files.length <= MAX_DISK_ENTRIES) return;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (int i = 0; i < files.length - MAX_DISK_ENTRIES; i++) {
+            files[i].delete();
+        }
+    }
+}
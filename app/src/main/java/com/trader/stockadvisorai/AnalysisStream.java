@@ -0,0 +1,181 @@
+package com.trader.stockadvisorai;
+
+import androidx.annotation.Nullable;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.ProtocolException;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+/**
+ * Reads a progressive {@code /analyze-portfolio} response: one stock per NDJSON line as the
+ * server predicts it, then a summary line {@code {"done": true, "count": n, "etag": "..."}}. Rows are handed
+ * over in batches: whatever has arrived by the time the reader would block on the network.
+ * A server that answers with the one-shot JSON (or CBOR) body instead is handled the same way,
+ * as a single batch. Listener calls arrive on an OkHttp thread.
+ */
+public class AnalysisStream {
+
+    public static final String MEDIA_TYPE = "application/x-ndjson";
+    static final String ACCEPT = MEDIA_TYPE + ", " + StockCborDecoder.MEDIA_TYPE + ";q=0.9, application/json;q=0.8";
+
+    public interface Listener {
+        /** Rows received since the last call, in server order. */
+        void onRows(List<StockResult> rows);
+
+        /**
+         * The server finished. {@code digest} and {@code etag} name and validate the result for a
+         * later conditional lookup; {@code error} is set if the server stopped early but cleanly.
+         */
+        void onComplete(int count, @Nullable String digest, @Nullable String etag, @Nullable String error);
+
+        void onHttpError(int code, String body);
+
+        /** Network failure or a stream cut off before its summary line; rows so far stay valid. */
+        void onFailure(IOException e);
+    }
+
+    private final OkHttpClient client;
+    private final Request request;
+    private final Listener listener;
+    private volatile boolean cancelled;
+    // Set on the caller's thread, cancelled from whichever thread cancels
+    private volatile Call call;
+
+    public AnalysisStream(OkHttpClient client, Request request, Listener listener) {
+        this.client = client;
+        this.request = request.newBuilder().header("Accept", ACCEPT).build();
+        this.listener = listener;
+    }
+
+    /** Starts the request; cancelling the returned handle stops reading and silences the listener. */
+    public BackendClient.Subscription start() {
+        Call call = client.newCall(request);
+        this.call = call;
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                if (!cancelled) listener.onFailure(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (ResponseBody body = response.body()) {
+                    if (!response.isSuccessful()) {
+                        String data = body != null ? body.string() : "";
+                        if (!cancelled) listener.onHttpError(response.code(), data);
+                        return;
+                    }
+                    if (body == null) throw new ProtocolException("Empty response");
+                    read(body, response.header(ResumableUploader.CONTENT_HASH_HEADER), response.header("ETag"));
+                } catch (IOException e) {
+                    if (!cancelled) listener.onFailure(e);
+                }
+            }
+        });
+        return this::cancel;
+    }
+
+    public void cancel() {
+        cancelled = true;
+        Call call = this.call;
+        if (call != null) call.cancel();
+    }
+
+    private void read(ResponseBody body, @Nullable String digest, @Nullable String etag) throws IOException {
+        MediaType type = body.contentType();
+        String mediaType = type != null ? type.type() + "/" + type.subtype() : "";
+        List<StockResult> rows;
+        if (mediaType.equals(StockCborDecoder.MEDIA_TYPE)) {
+            rows = StockCborDecoder.decode(body.source());
+        } else if (!mediaType.equals(MEDIA_TYPE)) {
+            // 🔁 Older server: the whole result in one JSON body
+            rows = StockResponseParser.parse(body.charStream());
+        } else {
+            readLines(body.source(), digest);
+            return;
+        }
+        if (cancelled) return;
+        listener.onRows(rows);
+        listener.onComplete(rows.size(), digest, etag, null);
+    }
+
+    private void readLines(BufferedSource source, @Nullable String digest) throws IOException {
+        List<StockResult> pending = new ArrayList<>();
+        String line;
+        while (!cancelled && (line = source.readUtf8Line()) != null) {
+            if (line.isEmpty()) continue;
+            Summary summary = readLine(line, pending);
+            if (summary != null) {
+                flush(pending);
+                if (cancelled) return;
+                listener.onComplete(summary.count, digest, summary.etag, summary.error);
+                return;
+            }
+            // Hand over what we have before the next read blocks waiting for the server
+            if (source.getBuffer().indexOf((byte) '\n') == -1) flush(pending);
+        }
+        flush(pending);
+        if (!cancelled) throw new ProtocolException("Stream ended without a summary line");
+    }
+
+    private void flush(List<StockResult> pending) {
+        if (pending.isEmpty() || cancelled) return;
+        listener.onRows(new ArrayList<>(pending));
+        pending.clear();
+    }
+
+    /** The {@code {"done": true, ...}} line that ends a stream. */
+    private static final class Summary {
+        int count = -1;
+        String etag;
+        String error;
+    }
+
+    // One pass per line: a row is added to pending, the summary is returned
+    @Nullable
+    private static Summary readLine(String line, List<StockResult> pending) throws IOException {
+        StockResponseParser.StockFields stock = new StockResponseParser.StockFields();
+        Summary summary = new Summary();
+        boolean done = false;
+        try (JsonReader reader = new JsonReader(new StringReader(line))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals("done")) done = true;
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.skipValue();
+                } else if (name.equals("count")) {
+                    summary.count = reader.nextInt();
+                } else if (name.equals("etag")) {
+                    summary.etag = reader.nextString();
+                } else if (name.equals("error")) {
+                    summary.error = reader.nextString();
+                } else if (!stock.read(name, reader)) {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (reader.peek() != JsonToken.END_DOCUMENT) throw new ProtocolException("Malformed line: " + line);
+        } catch (IllegalStateException | NumberFormatException e) {
+            // Not an object, or a value of the wrong type
+            throw new ProtocolException("Malformed line: " + line);
+        }
+        if (done) return summary;
+        pending.add(stock.toStock());
+        return null;
+    }
+}
@@ -0,0 +1,330 @@
+package com.trader.stockadvisorai;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * Process-wide client for the Flask backend. Every endpoint shares one connection pool and
+ * dispatcher, so screens reuse keep-alive connections instead of building their own clients.
+ *
+ * <p>Identical requests that are already in flight are coalesced: later callers subscribe to the
+ * running call instead of starting another one. The call is cancelled once every subscriber
+ * has cancelled.
+ *
+ * <p>Requests prefer CBOR (decoded straight into {@link StockResult}s, see
+ * {@link ResponseCallback#onStocks}) and fall back to JSON from servers that don't offer it.
+ * OkHttp negotiates gzip responses on its own; request bodies are gzipped once the server has
+ * advertised {@code Accept-Encoding: gzip}.
+ */
+public final class BackendClient {
+
+    public static final String SUGGEST_STOCKS = "/suggest-stocks";
+    public static final String ANALYZE_PORTFOLIO = "/analyze-portfolio";
+    public static final String ANALYZE_HOLDINGS = "/analyze-holdings";
+    public static final String PRICE_STREAM = "/prices/stream";
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+    static final String ACCEPT = StockCborDecoder.MEDIA_TYPE + ", application/json;q=0.9";
+    // Suggestions are small, and their JSON carries the candidate list AllocationEngine re-splits
+    static final String ACCEPT_JSON = "application/json";
+    // Below this, gzip framing costs more than it saves
+    static final int GZIP_MIN_BYTES = 512;
+
+    private static volatile BackendClient instance;
+
+    public interface ResponseCallback {
+        void onSuccess(String body);
+
+        /**
+         * A compact (CBOR) response, already decoded on the network thread. Callers that can use
+         * the rows directly override this; by default they are handed on as JSON.
+         */
+        default void onStocks(List<StockResult> stocks) {
+            onSuccess(StockResponseWriter.toJson(stocks));
+        }
+
+        void onHttpError(int code, String body);
+
+        void onFailure(IOException e);
+    }
+
+    /** Handle to one caller's interest in a (possibly shared) request. */
+    public interface Subscription {
+        void cancel();
+    }
+
+    private final OkHttpClient baseClient;
+    private final OkHttpClient suggestClient;
+    private final OkHttpClient analyzeClient;
+    private final OkHttpClient analyzeStreamClient;
+    private volatile HttpUrl baseUrl;
+    private volatile boolean serverAcceptsGzip;
+    private final Map<String, InFlight> inFlight = new HashMap<>();
+
+    public static BackendClient get() {
+        if (instance == null) {
+            synchronized (BackendClient.class) {
+                if (instance == null) {
+                    instance = new BackendClient(BuildConfig.BACKEND_URL, newBaseClient());
+                }
+            }
+        }
+        return instance;
+    }
+
+    static OkHttpClient newBaseClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(4);
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(4, 5, TimeUnit.MINUTES))
+                .addInterceptor(new RetryInterceptor())
+                .eventListenerFactory(NetworkTimingListener.FACTORY)
+                .build();
+    }
+
+    BackendClient(String baseUrl, OkHttpClient baseClient) {
+        this.baseClient = baseClient;
+        this.baseUrl = HttpUrl.get(baseUrl);
+        // newBuilder() shares the pool and dispatcher of the base client
+        this.suggestClient = baseClient.newBuilder()
+                .callTimeout(15, TimeUnit.SECONDS)
+                .build();
+        this.analyzeClient = baseClient.newBuilder()
+                .connectTimeout(30, TimeUnit.SECONDS)
+                .readTimeout(60, TimeUnit.SECONDS)
+                .writeTimeout(60, TimeUnit.SECONDS)
+                .callTimeout(120, TimeUnit.SECONDS)
+                .build();
+        // A progressive analysis may run long; the read timeout still bounds the gap between rows
+        this.analyzeStreamClient = analyzeClient.newBuilder()
+                .callTimeout(0, TimeUnit.SECONDS)
+                .build();
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = HttpUrl.get(baseUrl);
+    }
+
+    public HttpUrl url(String path) {
+        return baseUrl.newBuilder()
+                .addPathSegments(path.startsWith("/") ? path.substring(1) : path)
+                .build();
+    }
+
+    public OkHttpClient httpClient() {
+        return baseClient;
+    }
+
+    /** Live price subscription; the server sends a heartbeat well inside the read timeout. */
+    public PriceStream newPriceStream(PriceStream.Listener listener) {
+        OkHttpClient streamClient = baseClient.newBuilder()
+                .readTimeout(45, TimeUnit.SECONDS)
+                .build();
+        return new PriceStream(streamClient, url(PRICE_STREAM), listener);
+    }
+
+    public Subscription suggestStocks(double amount, ResponseCallback callback) {
+        RequestBody body = RequestBody.create("{\"amount\": " + amount + "}", JSON);
+        Request request = new Request.Builder()
+                .url(url(SUGGEST_STOCKS))
+                .header("Accept", ACCEPT_JSON)
+                // A pure lookup with a tiny body: safe for RetryInterceptor to replay
+                .header(RetryInterceptor.IDEMPOTENCY_KEY, UUID.randomUUID().toString())
+                .post(body)
+                .build();
+        return execute("suggest:" + amount, suggestClient, request, callback);
+    }
+
+    /** {@code imageKey} identifies the image, e.g. its content URI, for coalescing. */
+    public Subscription analyzePortfolio(RequestBody image, String fileName, String imageKey,
+                                         ResponseCallback callback) {
+        MultipartBody body = new MultipartBody.Builder()
+                .setType(MultipartBody.FORM)
+                .addFormDataPart("image", fileName, image)
+                .build();
+        Request request = new Request.Builder()
+                .url(url(ANALYZE_PORTFOLIO))
+                .header("Accept", ACCEPT)
+                .post(body)
+                .build();
+        return execute("analyze:" + imageKey, analyzeClient, request, callback);
+    }
+
+    /**
+     * Like {@link #analyzePortfolio} but rows arrive as the server predicts them (see
+     * {@link AnalysisStream}). Not coalesced: every call is its own stream.
+     */
+    public Subscription analyzePortfolioProgressively(RequestBody image, String fileName,
+                                                      AnalysisStream.Listener listener) {
+        MultipartBody body = new MultipartBody.Builder()
+                .setType(MultipartBody.FORM)
+                .addFormDataPart("image", fileName, image)
+                .build();
+        Request request = new Request.Builder()
+                .url(url(ANALYZE_PORTFOLIO))
+                .post(body)
+                .build();
+        return new AnalysisStream(analyzeStreamClient, request, listener).start();
+    }
+
+    /** Sends holdings read on the device, so only a few hundred bytes go over the wire. */
+    public Subscription analyzeHoldings(List<Holding> holdings, ResponseCallback callback) {
+        StringWriter json = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(json)) {
+            writer.beginObject().name("holdings").beginArray();
+            for (Holding holding : holdings) {
+                writer.beginObject()
+                        .name("symbol").value(holding.symbol)
+                        .name("quantity").value(holding.quantity)
+                        .name("avg_price").value(holding.avgPrice)
+                        .endObject();
+            }
+            writer.endArray().endObject();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        Request request = compressIfLarge(new Request.Builder()
+                .url(url(ANALYZE_HOLDINGS))
+                .header("Accept", ACCEPT)
+                .header(RetryInterceptor.IDEMPOTENCY_KEY, UUID.randomUUID().toString()), json.toString())
+                .build();
+        return execute("holdings:" + json, analyzeClient, request, callback);
+    }
+
+    private Request.Builder compressIfLarge(Request.Builder request, String json) {
+        if (!serverAcceptsGzip || json.length() < GZIP_MIN_BYTES) {
+            return request.post(RequestBody.create(json, JSON));
+        }
+        Buffer gzipped = new Buffer();
+        try (BufferedSink sink = Okio.buffer(new GzipSink(gzipped))) {
+            sink.writeUtf8(json);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return request.header("Content-Encoding", "gzip")
+                .post(RequestBody.create(gzipped.readByteString(), JSON));
+    }
+
+    private static boolean isCbor(ResponseBody body) {
+        MediaType type = body.contentType();
+        return type != null && (type.type() + "/" + type.subtype()).equals(StockCborDecoder.MEDIA_TYPE);
+    }
+
+    private Subscription execute(String key, OkHttpClient client, Request request,
+                                 ResponseCallback callback) {
+        InFlight shared;
+        synchronized (inFlight) {
+            shared = inFlight.get(key);
+            if (shared == null) {
+                shared = new InFlight(key, client.newCall(request));
+                inFlight.put(key, shared);
+                shared.subscribers.add(callback);
+                shared.call.enqueue(shared);
+            } else {
+                shared.subscribers.add(callback);
+            }
+        }
+        InFlight joined = shared;
+        return () -> joined.unsubscribe(callback);
+    }
+
+    int inFlightCount() {
+        synchronized (inFlight) {
+            return inFlight.size();
+        }
+    }
+
+    private final class InFlight implements Callback {
+        final String key;
+        final Call call;
+        final List<ResponseCallback> subscribers = new ArrayList<>(1);
+
+        InFlight(String key, Call call) {
+            this.key = key;
+            this.call = call;
+        }
+
+        void unsubscribe(ResponseCallback callback) {
+            synchronized (inFlight) {
+                if (!subscribers.remove(callback) || !subscribers.isEmpty()) return;
+                if (inFlight.get(key) == this) inFlight.remove(key);
+            }
+            call.cancel();
+        }
+
+        /** Detaches this call so new identical requests start fresh, and returns who to notify. */
+        private List<ResponseCallback> complete() {
+            synchronized (inFlight) {
+                if (inFlight.get(key) == this) inFlight.remove(key);
+                List<ResponseCallback> targets = new ArrayList<>(subscribers);
+                subscribers.clear();
+                return targets;
+            }
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+            for (ResponseCallback callback : complete()) {
+                callback.onFailure(e);
+            }
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) {
+            List<ResponseCallback> targets = complete();
+            String acceptEncoding = response.header("Accept-Encoding");
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) serverAcceptsGzip = true;
+
+            String data;
+            try (ResponseBody body = response.body()) {
+                if (body != null && response.isSuccessful() && isCbor(body)) {
+                    List<StockResult> stocks = StockCborDecoder.decode(body.source());
+                    for (ResponseCallback callback : targets) {
+                        callback.onStocks(stocks);
+                    }
+                    return;
+                }
+                data = body != null ? body.string() : "";
+            } catch (IOException e) {
+                for (ResponseCallback callback : targets) {
+                    callback.onFailure(e);
+                }
+                return;
+            }
+            for (ResponseCallback callback : targets) {
+                if (response.isSuccessful()) {
+                    callback.onSuccess(data);
+                } else {
+                    callback.onHttpError(response.code(), data);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.trader.stockadvisorai;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+
+/**
+ * Analyzes several portfolio screenshots as a pipeline of decode → compress → upload → parse.
+ * Stages overlap across images (one image uploads while the next is being decoded), and at most
+ * {@code maxInFlight} images are between decode and parse at any time. Results are merged and
+ * de-duplicated by symbol; the first screenshot that shows a symbol wins.
+ */
+public class BatchAnalysisPipeline {
+
+    private static final String TAG = "BatchAnalysis";
+    private static final MediaType JPEG = MediaType.parse("image/jpeg");
+
+    public interface Listener {
+        void onProgress(int completed, int total);
+
+        void onComplete(List<StockResult> merged, int failed);
+    }
+
+    private final ContentResolver resolver;
+    private final File workDir;
+    private final Listener listener;
+    private final Semaphore inFlight;
+    private final ExecutorService feeder = Executors.newSingleThreadExecutor();
+    private final ExecutorService cpu = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1)));
+    private final ExecutorService parser = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<BackendClient.Subscription> uploads = new ArrayList<>();
+    private final long runId = System.currentTimeMillis();
+    private volatile boolean cancelled;
+
+    public BatchAnalysisPipeline(ContentResolver resolver, File workDir, int maxInFlight, Listener listener) {
+        this.resolver = resolver;
+        this.workDir = workDir;
+        this.listener = listener;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    public void run(List<Uri> images) {
+        int total = images.size();
+        List<List<StockResult>> perImage = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) perImage.add(null);
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        feeder.execute(() -> {
+            for (int i = 0; i < total && !cancelled; i++) {
+                try {
+                    inFlight.acquire();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                int index = i;
+                Uri uri = images.get(i);
+                Stage done = results -> {
+                    inFlight.release();
+                    if (results == null) failed.incrementAndGet();
+                    synchronized (perImage) {
+                        perImage.set(index, results);
+                    }
+                    int finished = completed.incrementAndGet();
+                    // Last image in: nothing more will run on the stage threads
+                    if (finished == total) shutdownExecutors(false);
+                    mainHandler.post(() -> {
+                        if (cancelled) return;
+                        listener.onProgress(finished, total);
+                        if (finished == total) listener.onComplete(merge(perImage), failed.get());
+                    });
+                };
+                try {
+                    cpu.execute(() -> decodeAndCompress(index, uri, done));
+                } catch (RejectedExecutionException e) {
+                    // cancel() shut the stages down after the loop's check
+                    return;
+                }
+            }
+        });
+    }
+
+    private interface Stage {
+        void finish(List<StockResult> results);
+    }
+
+    private void decodeAndCompress(int index, Uri uri, Stage done) {
+        if (cancelled) return;
+        File encoded = new File(workDir, "batch_" + runId + "_" + index + ".jpg");
+        try {
+            if (!workDir.exists()) workDir.mkdirs();
+            Bitmap bitmap = ImageUploadBody.decodeSampled(resolver, uri,
+                    ImageUploadBody.DEFAULT_MAX_DIMENSION, Bitmap.Config.RGB_565);
+            try (OutputStream out = new FileOutputStream(encoded)) {
+                bitmap.compress(Bitmap.CompressFormat.JPEG, ImageUploadBody.DEFAULT_QUALITY, out);
+            } finally {
+                bitmap.recycle();
+            }
+        } catch (IOException | RuntimeException e) {
+            // e.g. a SecurityException once the picker's URI grant has lapsed; the rest of the
+            // batch goes on, and the stage must finish so its in-flight permit is returned
+            Log.w(TAG, "Failed to prepare " + uri, e);
+            encoded.delete();
+            done.finish(null);
+            return;
+        }
+        upload(uri, encoded, done);
+    }
+
+    private void upload(Uri uri, File encoded, Stage done) {
+        if (cancelled) return;
+        BackendClient.Subscription subscription;
+        try {
+            subscription = BackendClient.get().analyzePortfolio(
+                    RequestBody.create(encoded, JPEG), encoded.getName(), uri.toString(),
+                    new BackendClient.ResponseCallback() {
+                        @Override
+                        public void onSuccess(String body) {
+                            encoded.delete();
+                            if (cancelled) return;
+                            try {
+                                parser.execute(() -> parse(uri, body, done));
+                            } catch (RejectedExecutionException e) {
+                                // Cancelled between the check and the hand-off; nobody wants the result
+                            }
+                        }
+
+                        @Override
+                        public void onStocks(List<StockResult> stocks) {
+                            // Compact responses arrive already decoded; no parse stage needed
+                            encoded.delete();
+                            done.finish(stocks);
+                        }
+
+                        @Override
+                        public void onHttpError(int code, String body) {
+                            Log.w(TAG, "Server rejected " + uri + " (" + code + ")");
+                            encoded.delete();
+                            done.finish(null);
+                        }
+
+                        @Override
+                        public void onFailure(IOException e) {
+                            Log.w(TAG, "Upload failed for " + uri, e);
+                            encoded.delete();
+                            done.finish(null);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Could not start upload for " + uri, e);
+            encoded.delete();
+            done.finish(null);
+            return;
+        }
+        synchronized (uploads) {
+            uploads.add(subscription);
+        }
+    }
+
+    private void parse(Uri uri, String body, Stage done) {
+        List<StockResult> results;
+        try {
+            results = StockResponseParser.parse(body);
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Unreadable result for " + uri, e);
+            results = null;
+        }
+        done.finish(results);
+    }
+
+    private void shutdownExecutors(boolean now) {
+        for (ExecutorService executor : new ExecutorService[]{feeder, cpu, parser}) {
+            if (now) executor.shutdownNow();
+            else executor.shutdown();
+        }
+    }
+
+    private static List<StockResult> merge(List<List<StockResult>> perImage) {
+        Map<String, StockResult> bySymbol = new LinkedHashMap<>();
+        synchronized (perImage) {
+            for (List<StockResult> results : perImage) {
+                if (results == null) continue;
+                for (StockResult stock : results) {
+                    if (!bySymbol.containsKey(stock.symbol)) bySymbol.put(stock.symbol, stock);
+                }
+            }
+        }
+        return new ArrayList<>(bySymbol.values());
+    }
+
+    public void cancel() {
+        cancelled = true;
+        shutdownExecutors(true);
+        synchronized (uploads) {
+            for (BackendClient.Subscription subscription : uploads) subscription.cancel();
+            uploads.clear();
+        }
+    }
+}
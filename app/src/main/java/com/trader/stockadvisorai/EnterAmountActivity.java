@@ -1,29 +1,23 @@
 package com.trader.stockadvisorai;
 
-import android.content.Intent;
 import android.os.Bundle;
-import android.util.Base64;
 import android.util.Log;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
-import java.util.concurrent.TimeUnit;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 import java.io.IOException;
-
-import okhttp3.Call;
-import okhttp3.Callback;
-import okhttp3.MediaType;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.RequestBody;
-import okhttp3.Response;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class EnterAmountActivity extends AppCompatActivity {
 
     private EditText amountInput;
     private Button getSuggestionsBtn;
+    private SuggestionCache suggestionCache;
+    private PortfolioStore portfolioStore;
+    private final LifecycleCallScope callScope = new LifecycleCallScope(this);
+    private final ExecutorService cacheExecutor = Executors.newSingleThreadExecutor();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -32,60 +26,144 @@ public class EnterAmountActivity extends AppCompatActivity {
 
         amountInput = findViewById(R.id.amountInput);
         getSuggestionsBtn = findViewById(R.id.getSuggestionsBtn);
+        suggestionCache = SuggestionCache.get(this);
+        portfolioStore = PortfolioStore.get(this);
 
         getSuggestionsBtn.setOnClickListener(v -> {
             String amountStr = amountInput.getText().toString().trim();
             if (!amountStr.isEmpty()) {
                 double amount = Double.parseDouble(amountStr);
-                sendAmountToFlask(amount);
+                loadSuggestions(amount);
             } else {
                 Toast.makeText(this, "Please enter an amount", Toast.LENGTH_SHORT).show();
             }
         });
     }
 
-    private void sendAmountToFlask(double amount) {
-        OkHttpClient client = new OkHttpClient.Builder()
-                .callTimeout(15, TimeUnit.SECONDS)
-                .build();
+    // ⚡ Serve from cache when we can; stale entries open at once and refresh in the background,
+    // unless they are a session old, when yesterday's prices would pass for today's
+    private void loadSuggestions(double amount) {
+        cacheExecutor.execute(() -> {
+            SuggestionCache.Entry cached = suggestionCache.get(amount);
+            if (cached != null && !cached.isUsable(System.currentTimeMillis())) cached = null;
+            String resultId = cached != null ? fromCache(cached, amount) : allocateLocally(amount);
+            if (resultId == null) {
+                runOnUiThread(() -> sendAmountToFlask(amount));
+                return;
+            }
+
+            runOnUiThread(() -> openDashboard(resultId));
+            if (cached != null && !cached.isFresh(System.currentTimeMillis())) {
+                refreshInBackground(amount);
+            }
+        });
+    }
+
+    // A bucket hit was fetched for an amount up to ~1% away, so its quantities are redone for this
+    // one when it carries candidates; a compact response without them is shown as it is
+    private String fromCache(SuggestionCache.Entry cached, double amount) {
+        String resultId = reallocate(cached, amount);
+        return resultId != null ? resultId : store(cached.json);
+    }
+
+    // 🧮 Re-split today's prices on the device instead of asking the server again
+    private String allocateLocally(double amount) {
+        SuggestionCache.Entry latest = suggestionCache.latest();
+        if (latest == null || !latest.isFresh(System.currentTimeMillis())) return null;
+        return reallocate(latest, amount);
+    }
+
+    // Only the full candidate list gives the server's answer for any amount; the suggestions alone
+    // would miss stocks that only qualify at the new amount
+    private String reallocate(SuggestionCache.Entry entry, double amount) {
+        try {
+            List<StockResult> candidates = StockResponseParser.parseCandidates(entry.json);
+            if (candidates.isEmpty()) return null;
+            List<StockResult> allocated = AllocationEngine.reallocate(candidates, amount);
+            return allocated.isEmpty() ? null : portfolioStore.put(allocated);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void refreshInBackground(double amount) {
+        if (!suggestionCache.beginRefresh(amount)) return;
+        BackendClient.get().suggestStocks(amount, new BackendClient.ResponseCallback() {
+            @Override
+            public void onSuccess(String responseData) {
+                suggestionCache.put(amount, responseData);
+                suggestionCache.endRefresh(amount);
+            }
 
-        JSONObject json = new JSONObject();
+            @Override
+            public void onHttpError(int code, String body) {
+                suggestionCache.endRefresh(amount);
+            }
+
+            @Override
+            public void onFailure(IOException e) {
+                suggestionCache.endRefresh(amount);
+            }
+        });
+    }
+
+    private String store(String json) {
         try {
-            json.put("amount", amount);
-        } catch (JSONException e) {
-            e.printStackTrace();
-            runOnUiThread(() -> Toast.makeText(this, "Failed to build request", Toast.LENGTH_SHORT).show());
-            return;
+            return portfolioStore.putJson(json);
+        } catch (IOException e) {
+            return null;
         }
+    }
 
-        RequestBody body = RequestBody.create(json.toString(), MediaType.parse("application/json"));
+    private void openDashboard(String resultId) {
+        startActivity(ResultDashboardActivity.intentFor(this, resultId));
+    }
 
-        Request request = new Request.Builder()
-                .url("http://192.168.0.103:5000/suggest-stocks")
-                .post(body)
-                .build();
+    // Repeated taps for the same amount join the request already in flight
+    private void sendAmountToFlask(double amount) {
+        callScope.run(callback -> BackendClient.get().suggestStocks(amount, callback), new BackendClient.ResponseCallback() {
+            @Override
+            public void onSuccess(String responseData) {
+                Log.d("FLASK_RESPONSE", responseData);
+                cacheExecutor.execute(() -> {
+                    suggestionCache.put(amount, responseData);
+                    String resultId = store(responseData);
+                    runOnUiThread(() -> {
+                        if (resultId == null) {
+                            Toast.makeText(EnterAmountActivity.this, "Invalid response", Toast.LENGTH_SHORT).show();
+                        } else if (!isDestroyed()) {
+                            openDashboard(resultId);
+                        }
+                    });
+                });
+            }
 
-        client.newCall(request).enqueue(new Callback() {
             @Override
-            public void onFailure(Call call, IOException e) {
-                runOnUiThread(() ->
-                        Toast.makeText(EnterAmountActivity.this, "Request failed: " + e.getMessage(), Toast.LENGTH_LONG).show());
+            public void onStocks(List<StockResult> stocks) {
+                cacheExecutor.execute(() -> {
+                    String resultId = portfolioStore.put(stocks);
+                    runOnUiThread(() -> {
+                        if (!isDestroyed()) openDashboard(resultId);
+                    });
+                    suggestionCache.put(amount, StockResponseWriter.toJson(stocks));
+                });
             }
 
             @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                if (response.isSuccessful()) {
-                    String responseData = response.body().string();
-                    Log.d("FLASK_RESPONSE", responseData);
-
-                    Intent intent = new Intent(EnterAmountActivity.this, ResultDashboardActivity.class);
-                    intent.putExtra("result", responseData);
-                    startActivity(intent);
-                } else {
-                    runOnUiThread(() -> Toast.makeText(EnterAmountActivity.this, "Invalid response", Toast.LENGTH_SHORT).show());
-                }
+            public void onHttpError(int code, String body) {
+                Toast.makeText(EnterAmountActivity.this, "Invalid response", Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onFailure(IOException e) {
+                Toast.makeText(EnterAmountActivity.this, "Request failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
             }
         });
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        cacheExecutor.shutdown();
+    }
 }
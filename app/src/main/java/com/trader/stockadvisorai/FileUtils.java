@@ -1,19 +0,0 @@
-package com.trader.stockadvisorai;
-
-import android.content.Context;
-import android.database.Cursor;
-import android.net.Uri;
-import android.provider.MediaStore;
-
-public class FileUtils {
-    public static String getPath(Context context, Uri uri) {
-        Cursor cursor = context.getContentResolver().query(uri, null, null, null, null);
-        if (cursor == null) return null;
-
-        cursor.moveToFirst();
-        int index = cursor.getColumnIndex(MediaStore.Images.ImageColumns.DATA);
-        String filePath = cursor.getString(index);
-        cursor.close();
-        return filePath;
-    }
-}
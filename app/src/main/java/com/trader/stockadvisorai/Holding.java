@@ -0,0 +1,15 @@
+package com.trader.stockadvisorai;
+
+/** One holdings-table row read from a portfolio screenshot. */
+public class Holding {
+
+    public final String symbol;
+    public final int quantity;
+    public final double avgPrice;
+
+    public Holding(String symbol, int quantity, double avgPrice) {
+        this.symbol = symbol;
+        this.quantity = quantity;
+        this.avgPrice = avgPrice;
+    }
+}
@@ -0,0 +1,222 @@
+package com.trader.stockadvisorai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns recognized text lines from a broker holdings screen into {@link Holding} rows.
+ * Lines are grouped into table rows by vertical position, then each row is scanned for a
+ * symbol, a quantity and an average price. Handles both "SYMBOL 10 452.30" tables and the
+ * two-line "Qty. 10 • Avg. 452.30" / "SYMBOL" card layout. Signed and percent figures (P&L,
+ * day change) and numbers after other column labels (LTP, Invested) are never read as a
+ * quantity or price, and a header row does not count as an unparsed holding.
+ */
+public final class HoldingsTableParser {
+
+    private static final Pattern SYMBOL = Pattern.compile("^[A-Z][A-Z0-9&\\-]{2,19}(\\.(NS|BO))?$");
+    private static final Pattern NUMBER = Pattern.compile("\\d[\\d,]*(\\.\\d+)?");
+    private static final Set<String> NOT_SYMBOLS = new HashSet<>(Arrays.asList(
+            "QTY", "AVG", "LTP", "INVESTED", "CURRENT", "CUR", "VAL", "NSE", "BSE", "HOLDINGS",
+            "TOTAL", "DAY", "NET", "CHG", "P&L", "PNL", "PRICE", "VALUE", "RS",
+            "INSTRUMENT", "SYMBOL", "STOCK", "STOCKS", "SCRIP", "NAME", "COMPANY", "QUANTITY"));
+    /** Column labels whose figure is neither the quantity nor the average price. */
+    private static final Set<String> OTHER_LABELS = new HashSet<>(Arrays.asList(
+            "LTP", "INVESTED", "CURRENT", "CUR", "VAL", "VALUE", "PRICE", "P&L", "PNL", "NET", "DAY", "CHG"));
+
+    /** A recognized line and the vertical span it occupies on the image. */
+    public static class Line {
+        final String text;
+        final int top;
+        final int bottom;
+        final int left;
+
+        public Line(String text, int top, int bottom, int left) {
+            this.text = text;
+            this.top = top;
+            this.bottom = bottom;
+            this.left = left;
+        }
+    }
+
+    public static class Result {
+        public final List<Holding> holdings;
+        /** Share of rows carrying a symbol that also yielded a quantity, 0..1. */
+        public final float confidence;
+
+        Result(List<Holding> holdings, float confidence) {
+            this.holdings = holdings;
+            this.confidence = confidence;
+        }
+    }
+
+    private HoldingsTableParser() {}
+
+    public static Result parse(List<Line> lines) {
+        Map<String, Holding> holdings = new LinkedHashMap<>();
+        int symbolRows = 0;
+        // Rows that became a holding; a symbol listed twice is merged but still counts twice
+        int parsedRows = 0;
+
+        String pendingSymbol = null;
+        int pendingQty = -1;
+        double pendingAvg = 0.0;
+
+        for (String row : groupRows(lines)) {
+            String[] tokens = row.toUpperCase(Locale.ROOT).replace("₹", " ").replace("•", " ").split("\\s+");
+            if (isHeader(tokens)) continue;
+            String symbol = findSymbol(tokens);
+            double[] numbers = readNumbers(tokens);
+            int qty = (int) numbers[0];
+            double avg = numbers[1];
+
+            if (symbol != null) symbolRows++;
+
+            if (symbol != null && qty > 0) {
+                put(holdings, symbol, qty, avg);
+                parsedRows++;
+                pendingSymbol = null;
+                pendingQty = -1;
+            } else if (symbol != null) {
+                if (pendingQty > 0) {
+                    put(holdings, symbol, pendingQty, pendingAvg);
+                    parsedRows++;
+                    pendingQty = -1;
+                } else {
+                    pendingSymbol = symbol;
+                }
+            } else if (qty > 0) {
+                if (pendingSymbol != null) {
+                    put(holdings, pendingSymbol, qty, avg);
+                    parsedRows++;
+                    pendingSymbol = null;
+                } else {
+                    pendingQty = qty;
+                    pendingAvg = avg;
+                }
+            }
+        }
+
+        float confidence = symbolRows == 0 ? 0f : Math.min(1f, (float) parsedRows / symbolRows);
+        return new Result(new ArrayList<>(holdings.values()), confidence);
+    }
+
+    private static void put(Map<String, Holding> holdings, String symbol, int qty, double avg) {
+        Holding previous = holdings.get(symbol);
+        if (previous != null) {
+            int total = previous.quantity + qty;
+            avg = (previous.avgPrice * previous.quantity + avg * qty) / total;
+            qty = total;
+        }
+        holdings.put(symbol, new Holding(symbol, qty, avg));
+    }
+
+    /** Joins lines whose vertical centers fall inside the same band into left-to-right rows. */
+    static List<String> groupRows(List<Line> lines) {
+        List<Line> sorted = new ArrayList<>(lines);
+        Collections.sort(sorted, (a, b) -> Integer.compare(a.top + a.bottom, b.top + b.bottom));
+
+        List<String> rows = new ArrayList<>();
+        List<Line> band = new ArrayList<>();
+        int bandBottom = Integer.MIN_VALUE;
+        for (Line line : sorted) {
+            int center = (line.top + line.bottom) / 2;
+            if (!band.isEmpty() && center > bandBottom) {
+                rows.add(joinBand(band));
+                band.clear();
+            }
+            if (band.isEmpty()) bandBottom = line.bottom;
+            band.add(line);
+        }
+        if (!band.isEmpty()) rows.add(joinBand(band));
+        return rows;
+    }
+
+    private static String joinBand(List<Line> band) {
+        Collections.sort(band, (a, b) -> Integer.compare(a.left, b.left));
+        StringBuilder row = new StringBuilder();
+        for (Line line : band) {
+            if (row.length() > 0) row.append(' ');
+            row.append(line.text);
+        }
+        return row.toString();
+    }
+
+    private static String findSymbol(String[] tokens) {
+        for (String token : tokens) {
+            if (SYMBOL.matcher(token).matches() && !NOT_SYMBOLS.contains(token)) {
+                return token;
+            }
+        }
+        return null;
+    }
+
+    private static String labelOf(String token) {
+        return token.replace(".", "").replace(":", "");
+    }
+
+    /** A column header such as "Instrument Qty. Avg. LTP": labels only, no figures. */
+    private static boolean isHeader(String[] tokens) {
+        int labels = 0;
+        for (String token : tokens) {
+            if (NUMBER.matcher(token).find()) return false;
+            if (NOT_SYMBOLS.contains(labelOf(token))) labels++;
+        }
+        return labels >= 2;
+    }
+
+    // e.g. "+1,234.00", "-12.5" or "(2.31%)": P&L and change figures, never a quantity or price
+    private static boolean isChange(String token) {
+        String bare = token.replace("(", "").replace(")", "");
+        return bare.startsWith("+") || bare.startsWith("-") || bare.endsWith("%");
+    }
+
+    /** Returns {quantity, avgPrice}; keyword labels win, otherwise the first two numbers. */
+    private static double[] readNumbers(String[] tokens) {
+        double qty = -1;
+        double avg = 0.0;
+        List<String> unlabeled = new ArrayList<>();
+        String label = null;
+
+        for (String token : tokens) {
+            String word = labelOf(token);
+            if (word.equals("QTY") || word.equals("AVG") || OTHER_LABELS.contains(word)) {
+                label = word;
+                continue;
+            }
+            if (isChange(token)) continue;
+            Matcher m = NUMBER.matcher(token);
+            if (!m.find()) continue;
+            String number = m.group().replace(",", "");
+            if ("QTY".equals(label)) {
+                if (isWhole(number)) qty = Double.parseDouble(number);
+            } else if ("AVG".equals(label)) {
+                avg = Double.parseDouble(number);
+            } else if (label == null) {
+                unlabeled.add(number);
+            }
+            label = null;
+        }
+
+        // Quantities are written without decimals; "4,523.00" is an amount, not a share count
+        if (qty < 0 && !unlabeled.isEmpty() && isWhole(unlabeled.get(0))) {
+            qty = Double.parseDouble(unlabeled.remove(0));
+        }
+        if (avg == 0.0 && !unlabeled.isEmpty()) {
+            avg = Double.parseDouble(unlabeled.get(0));
+        }
+        return new double[]{qty, avg};
+    }
+
+    private static boolean isWhole(String number) {
+        return number.indexOf('.') < 0;
+    }
+}
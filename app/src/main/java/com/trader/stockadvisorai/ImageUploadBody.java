@@ -0,0 +1,132 @@
+package com.trader.stockadvisorai;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * Streams a picked image to the backend. The image is read through the {@link ContentResolver},
+ * subsampled down to a size that is still readable for table OCR, and re-encoded straight into
+ * the request sink, so neither the original file nor the encoded output is held in a byte array.
+ */
+public class ImageUploadBody extends RequestBody {
+
+    /** Longest edge kept for OCR; broker screenshots stay legible well below this. */
+    public static final int DEFAULT_MAX_DIMENSION = 1600;
+    public static final int DEFAULT_QUALITY = 85;
+
+    private final ContentResolver resolver;
+    private final Uri uri;
+    private final Bitmap.CompressFormat format;
+    private final int quality;
+    private final int maxDimension;
+
+    public ImageUploadBody(ContentResolver resolver, Uri uri) {
+        this(resolver, uri, Bitmap.CompressFormat.JPEG, DEFAULT_QUALITY, DEFAULT_MAX_DIMENSION);
+    }
+
+    public ImageUploadBody(ContentResolver resolver, Uri uri, Bitmap.CompressFormat format,
+                           int quality, int maxDimension) {
+        this.resolver = resolver;
+        this.uri = uri;
+        this.format = format;
+        this.quality = quality;
+        this.maxDimension = maxDimension;
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return MediaType.parse(format == Bitmap.CompressFormat.PNG ? "image/png"
+                : format == Bitmap.CompressFormat.JPEG ? "image/jpeg" : "image/webp");
+    }
+
+    public String fileName() {
+        return format == Bitmap.CompressFormat.PNG ? "portfolio.png"
+                : format == Bitmap.CompressFormat.JPEG ? "portfolio.jpg" : "portfolio.webp";
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        Bitmap bitmap = decode();
+        try {
+            if (!bitmap.compress(format, quality, sink.outputStream())) {
+                throw new IOException("Failed to encode image");
+            }
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    public Bitmap decode() throws IOException {
+        // No alpha channel in JPEG, so half the memory per pixel is enough
+        Bitmap.Config config = format == Bitmap.CompressFormat.JPEG
+                ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+        return decodeSampled(resolver, uri, maxDimension, config);
+    }
+
+    /** Decodes an image with power-of-two subsampling, then scales it to fit maxDimension. */
+    public static Bitmap decodeSampled(ContentResolver resolver, Uri uri, int maxDimension,
+                                       Bitmap.Config config) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = open(resolver, uri)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Unsupported image");
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize(bounds.outWidth, bounds.outHeight, maxDimension);
+        options.inPreferredConfig = config;
+
+        Bitmap bitmap;
+        try (InputStream in = open(resolver, uri)) {
+            bitmap = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (bitmap == null) {
+            throw new IOException("Unsupported image");
+        }
+
+        int longest = Math.max(bitmap.getWidth(), bitmap.getHeight());
+        if (longest > maxDimension) {
+            float scale = (float) maxDimension / longest;
+            Bitmap scaled = Bitmap.createScaledBitmap(bitmap,
+                    Math.round(bitmap.getWidth() * scale), Math.round(bitmap.getHeight() * scale), true);
+            if (scaled != bitmap) bitmap.recycle();
+            bitmap = scaled;
+        }
+        return bitmap;
+    }
+
+    private static InputStream open(ContentResolver resolver, Uri uri) throws IOException {
+        InputStream in = resolver.openInputStream(uri);
+        if (in == null) throw new IOException("Cannot open " + uri);
+        return in;
+    }
+
+    static int sampleSize(int width, int height, int maxDimension) {
+        int sample = 1;
+        int longest = Math.max(width, height);
+        while (longest / (sample * 2) >= maxDimension) {
+            sample *= 2;
+        }
+        return sample;
+    }
+}
@@ -0,0 +1,57 @@
+package com.trader.stockadvisorai;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, lock-free latency histogram. Buckets grow geometrically (about 19% per bucket)
+ * from 0.1 ms to about 90 seconds, so percentiles are accurate to within one bucket width; slower
+ * calls all land in the last bucket. Recording is a single atomic increment.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 80;
+    private static final long MIN_MICROS = 100;
+    private static final double GROWTH = 1.19;
+    private static final double LOG_GROWTH = Math.log(GROWTH);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long micros) {
+        counts.incrementAndGet(bucketFor(micros));
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += counts.get(i);
+        return total;
+    }
+
+    /** Upper bound of the bucket holding the given percentile (0–100), in milliseconds. */
+    public double percentileMillis(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return upperBoundMicros(i) / 1000.0;
+        }
+        return upperBoundMicros(BUCKETS - 1) / 1000.0;
+    }
+
+    static int bucketFor(long micros) {
+        if (micros <= MIN_MICROS) return 0;
+        int bucket = 1 + (int) (Math.log((double) micros / MIN_MICROS) / LOG_GROWTH);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    static double upperBoundMicros(int bucket) {
+        return MIN_MICROS * Math.pow(GROWTH, bucket);
+    }
+}
@@ -0,0 +1,128 @@
+package com.trader.stockadvisorai;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ties backend calls to a screen's lifecycle. Callbacks wrapped here run on the main thread and
+ * are dropped once the owner is destroyed, at which point every call still running is cancelled.
+ * A call stops being tracked as soon as it answers or is cancelled.
+ */
+public class LifecycleCallScope implements DefaultLifecycleObserver {
+
+    private final Lifecycle lifecycle;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<BackendClient.Subscription> subscriptions = new ArrayList<>();
+
+    public LifecycleCallScope(LifecycleOwner owner) {
+        this.lifecycle = owner.getLifecycle();
+        lifecycle.addObserver(this);
+    }
+
+    /** Starts a call with a main-thread, lifecycle-aware callback and tracks it for cancellation. */
+    public BackendClient.Subscription run(Starter starter, BackendClient.ResponseCallback callback) {
+        Tracked tracked = new Tracked();
+        synchronized (subscriptions) {
+            subscriptions.add(tracked);
+        }
+        tracked.attach(starter.start(wrap(callback, tracked)));
+        return tracked;
+    }
+
+    /** Calls started here that have neither answered nor been cancelled. */
+    int trackedCount() {
+        synchronized (subscriptions) {
+            return subscriptions.size();
+        }
+    }
+
+    private void untrack(BackendClient.Subscription subscription) {
+        synchronized (subscriptions) {
+            subscriptions.remove(subscription);
+        }
+    }
+
+    // Tracked before the call starts, so an answer that arrives first still untracks it
+    private final class Tracked implements BackendClient.Subscription {
+        private BackendClient.Subscription call;
+        private boolean cancelled;
+
+        synchronized void attach(BackendClient.Subscription call) {
+            this.call = call;
+            if (cancelled) call.cancel();
+        }
+
+        @Override
+        public void cancel() {
+            BackendClient.Subscription call;
+            synchronized (this) {
+                cancelled = true;
+                call = this.call;
+            }
+            untrack(this);
+            if (call != null) call.cancel();
+        }
+    }
+
+    public interface Starter {
+        BackendClient.Subscription start(BackendClient.ResponseCallback callback);
+    }
+
+    private BackendClient.ResponseCallback wrap(BackendClient.ResponseCallback callback, Tracked tracked) {
+        return new BackendClient.ResponseCallback() {
+            @Override
+            public void onSuccess(String body) {
+                untrack(tracked);
+                post(() -> callback.onSuccess(body));
+            }
+
+            @Override
+            public void onStocks(List<StockResult> stocks) {
+                untrack(tracked);
+                post(() -> callback.onStocks(stocks));
+            }
+
+            @Override
+            public void onHttpError(int code, String body) {
+                untrack(tracked);
+                post(() -> callback.onHttpError(code, body));
+            }
+
+            @Override
+            public void onFailure(IOException e) {
+                untrack(tracked);
+                post(() -> callback.onFailure(e));
+            }
+        };
+    }
+
+    private void post(Runnable delivery) {
+        mainHandler.post(() -> {
+            if (lifecycle.getCurrentState() != Lifecycle.State.DESTROYED) {
+                delivery.run();
+            }
+        });
+    }
+
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        List<BackendClient.Subscription> active;
+        synchronized (subscriptions) {
+            active = new ArrayList<>(subscriptions);
+            subscriptions.clear();
+        }
+        for (BackendClient.Subscription subscription : active) {
+            subscription.cancel();
+        }
+        mainHandler.removeCallbacksAndMessages(null);
+    }
+}
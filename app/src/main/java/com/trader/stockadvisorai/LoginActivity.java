@@ -6,7 +6,6 @@ import android.text.TextUtils;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.google.firebase.FirebaseApp;
 import com.google.firebase.auth.FirebaseAuth;
 
 public class LoginActivity extends AppCompatActivity {
@@ -20,11 +19,15 @@ public class LoginActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
-
-        FirebaseApp.initializeApp(this);
+        // Firebase is initialized by StockAdvisorApp's startup graph
+        firebaseAuth = FirebaseAuth.getInstance();
+        if (firebaseAuth.getCurrentUser() != null) {
+            startActivity(new Intent(LoginActivity.this, UserTypeActivity.class));
+            finish();
+            return;
+        }
 
         setContentView(R.layout.activity_login);
-        firebaseAuth = FirebaseAuth.getInstance();
 
         emailEditText = findViewById(R.id.email);
         passwordEditText = findViewById(R.id.password);
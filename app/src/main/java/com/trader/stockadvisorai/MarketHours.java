@@ -0,0 +1,65 @@
+package com.trader.stockadvisorai;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/** NSE cash-market session (09:15–15:30 IST, Monday to Friday) used to age cached prices. */
+public final class MarketHours {
+
+    private static final TimeZone IST = TimeZone.getTimeZone("Asia/Kolkata");
+    private static final int OPEN_MINUTE = 9 * 60 + 15;
+    private static final int CLOSE_MINUTE = 15 * 60 + 30;
+
+    /** How long a result fetched while the market is open stays fresh. */
+    public static final long INTRADAY_TTL_MS = TimeUnit.MINUTES.toMillis(5);
+
+    /** Length of one trading session (6 h 15 min). */
+    public static final long SESSION_MS = TimeUnit.MINUTES.toMillis(CLOSE_MINUTE - OPEN_MINUTE);
+
+    private MarketHours() {}
+
+    public static boolean isOpen(long timeMs) {
+        Calendar cal = calendar(timeMs);
+        int minute = cal.get(Calendar.HOUR_OF_DAY) * 60 + cal.get(Calendar.MINUTE);
+        return isWeekday(cal) && minute >= OPEN_MINUTE && minute < CLOSE_MINUTE;
+    }
+
+    /**
+     * Prices fetched during the session expire after {@link #INTRADAY_TTL_MS}. Prices fetched
+     * while the market is closed cannot change, so they stay fresh until the next open.
+     */
+    public static long expiryFor(long fetchedAtMs) {
+        if (isOpen(fetchedAtMs)) {
+            return fetchedAtMs + INTRADAY_TTL_MS;
+        }
+        return nextOpen(fetchedAtMs);
+    }
+
+    public static long nextOpen(long timeMs) {
+        Calendar cal = calendar(timeMs);
+        int minute = cal.get(Calendar.HOUR_OF_DAY) * 60 + cal.get(Calendar.MINUTE);
+        if (!isWeekday(cal) || minute >= OPEN_MINUTE) {
+            cal.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        while (!isWeekday(cal)) {
+            cal.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        cal.set(Calendar.HOUR_OF_DAY, OPEN_MINUTE / 60);
+        cal.set(Calendar.MINUTE, OPEN_MINUTE % 60);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        return cal.getTimeInMillis();
+    }
+
+    private static boolean isWeekday(Calendar cal) {
+        int day = cal.get(Calendar.DAY_OF_WEEK);
+        return day != Calendar.SATURDAY && day != Calendar.SUNDAY;
+    }
+
+    private static Calendar calendar(long timeMs) {
+        Calendar cal = Calendar.getInstance(IST);
+        cal.setTimeInMillis(timeMs);
+        return cal;
+    }
+}
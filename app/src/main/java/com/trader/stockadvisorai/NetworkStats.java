@@ -0,0 +1,96 @@
+package com.trader.stockadvisorai;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Per-endpoint, per-phase latency histograms for backend calls, plus a lock-free ring buffer of
+ * the most recent calls. Memory is fixed: histograms never grow and the ring overwrites its
+ * oldest slot.
+ */
+public final class NetworkStats {
+
+    public enum Phase { DNS, CONNECT, REQUEST_BODY, TTFB, RESPONSE_BODY, TOTAL }
+
+    public static final String[] ENDPOINTS = {
+            BackendClient.SUGGEST_STOCKS, BackendClient.ANALYZE_PORTFOLIO, "other"};
+
+    private static final int RECENT_CALLS = 128;
+
+    /** One finished call; phase durations are in microseconds, -1 when the phase did not occur. */
+    public static class CallTiming {
+        public final String endpoint;
+        public final long startedAtMs;
+        public final long[] phaseMicros;
+        public final boolean failed;
+
+        CallTiming(String endpoint, long startedAtMs, long[] phaseMicros, boolean failed) {
+            this.endpoint = endpoint;
+            this.startedAtMs = startedAtMs;
+            this.phaseMicros = phaseMicros;
+            this.failed = failed;
+        }
+    }
+
+    private static final LatencyHistogram[][] histograms =
+            new LatencyHistogram[ENDPOINTS.length][Phase.values().length];
+    private static final AtomicReferenceArray<CallTiming> recent = new AtomicReferenceArray<>(RECENT_CALLS);
+    private static final AtomicLong cursor = new AtomicLong();
+
+    static {
+        for (LatencyHistogram[] row : histograms) {
+            for (int p = 0; p < row.length; p++) row[p] = new LatencyHistogram();
+        }
+    }
+
+    private NetworkStats() {}
+
+    static int endpointIndex(String path) {
+        for (int i = 0; i < ENDPOINTS.length - 1; i++) {
+            if (ENDPOINTS[i].equals(path)) return i;
+        }
+        return ENDPOINTS.length - 1;
+    }
+
+    static void record(String path, long startedAtMs, long[] phaseMicros, boolean failed) {
+        int endpoint = endpointIndex(path);
+        for (int p = 0; p < phaseMicros.length; p++) {
+            if (phaseMicros[p] >= 0) histograms[endpoint][p].record(phaseMicros[p]);
+        }
+        int slot = (int) (cursor.getAndIncrement() % RECENT_CALLS);
+        recent.set(slot, new CallTiming(ENDPOINTS[endpoint], startedAtMs, phaseMicros, failed));
+    }
+
+    public static LatencyHistogram histogram(String endpoint, Phase phase) {
+        return histograms[endpointIndex(endpoint)][phase.ordinal()];
+    }
+
+    /** p50/p95/p99 per endpoint and phase, followed by the most recent calls. */
+    public static void dump(Writer out) throws IOException {
+        for (String endpoint : ENDPOINTS) {
+            out.write(endpoint + "\n");
+            for (Phase phase : Phase.values()) {
+                LatencyHistogram h = histogram(endpoint, phase);
+                out.write(String.format(Locale.US, "  %-14s n=%-6d p50=%8.1fms p95=%8.1fms p99=%8.1fms%n",
+                        phase, h.count(), h.percentileMillis(50), h.percentileMillis(95), h.percentileMillis(99)));
+            }
+        }
+
+        out.write("\nRecent calls (phase times in ms: dns connect body ttfb read total)\n");
+        long end = cursor.get();
+        for (long i = Math.max(0, end - RECENT_CALLS); i < end; i++) {
+            CallTiming call = recent.get((int) (i % RECENT_CALLS));
+            if (call == null) continue;
+            StringBuilder line = new StringBuilder();
+            line.append(call.startedAtMs).append(' ').append(call.endpoint);
+            for (long micros : call.phaseMicros) {
+                line.append(' ').append(micros < 0 ? "-" : String.format(Locale.US, "%.1f", micros / 1000.0));
+            }
+            if (call.failed) line.append(" FAILED");
+            out.write(line.append('\n').toString());
+        }
+    }
+}
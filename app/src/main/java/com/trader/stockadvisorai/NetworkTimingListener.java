@@ -0,0 +1,128 @@
+package com.trader.stockadvisorai;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Arrays;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Times the phases of each backend call (DNS, connect, request body, time to first byte,
+ * response body) and records them in {@link NetworkStats} when the call ends. Each callback only
+ * stores a {@link System#nanoTime()} reading.
+ */
+public class NetworkTimingListener extends EventListener {
+
+    public static final Factory FACTORY = call -> new NetworkTimingListener();
+
+    private long callStart;
+    private long dnsStart = -1, dnsEnd = -1;
+    private long connectStart = -1, connectEnd = -1;
+    private long requestStart = -1, requestEnd = -1;
+    private long responseHeadersStart = -1;
+    private long responseBodyStart = -1, responseBodyEnd = -1;
+    private long startedAtMs;
+
+    @Override
+    public void callStart(Call call) {
+        callStart = System.nanoTime();
+        startedAtMs = System.currentTimeMillis();
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> addresses) {
+        dnsEnd = System.nanoTime();
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress address, Proxy proxy) {
+        if (connectStart < 0) connectStart = System.nanoTime();
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol) {
+        connectEnd = System.nanoTime();
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol, IOException ioe) {
+        connectEnd = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        connectEnd = System.nanoTime();
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+        // Retries re-send the request; time the last attempt
+        requestStart = System.nanoTime();
+        requestEnd = -1;
+    }
+
+    @Override
+    public void requestHeadersEnd(Call call, Request request) {
+        requestEnd = System.nanoTime();
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        requestEnd = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        responseHeadersStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseBodyStart(Call call) {
+        responseBodyStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        responseBodyEnd = System.nanoTime();
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        record(call, false);
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        record(call, true);
+    }
+
+    private void record(Call call, boolean failed) {
+        long end = System.nanoTime();
+        long[] phases = new long[NetworkStats.Phase.values().length];
+        Arrays.fill(phases, -1);
+        phases[NetworkStats.Phase.DNS.ordinal()] = micros(dnsStart, dnsEnd);
+        phases[NetworkStats.Phase.CONNECT.ordinal()] = micros(connectStart, connectEnd);
+        phases[NetworkStats.Phase.REQUEST_BODY.ordinal()] = micros(requestStart, requestEnd);
+        phases[NetworkStats.Phase.TTFB.ordinal()] = micros(requestEnd, responseHeadersStart);
+        phases[NetworkStats.Phase.RESPONSE_BODY.ordinal()] = micros(responseBodyStart, responseBodyEnd);
+        phases[NetworkStats.Phase.TOTAL.ordinal()] = micros(callStart, end);
+        NetworkStats.record(call.request().url().encodedPath(), startedAtMs, phases, failed);
+    }
+
+    private static long micros(long start, long end) {
+        return start >= 0 && end >= start ? (end - start) / 1000 : -1;
+    }
+}
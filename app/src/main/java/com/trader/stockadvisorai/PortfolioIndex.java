@@ -0,0 +1,256 @@
+package com.trader.stockadvisorai;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Search and sort indexes over one {@link PortfolioSnapshot}, built once per result: the rows
+ * sorted by symbol (binary-searched for type-ahead) and one pre-sorted row permutation per sort
+ * key. A query only walks int arrays and fills the caller's buffer with row indexes, so a
+ * keystroke or sort change never touches the rows themselves.
+ *
+ * <p>Queries reuse internal scratch space; call them from one thread (the main thread).
+ */
+public final class PortfolioIndex {
+
+    public enum Sort { SERVER, SYMBOL, PRICE, UPSIDE, INVESTED, ADVICE }
+
+    private final PortfolioSnapshot snapshot;
+    private final String[] sortedSymbols;
+    private final int[] bySymbol;
+    private final int[] byInvested;
+    private final int[] byAdvice;
+    private final String[] adviceLabels;
+    private final int[] adviceLabelIds;
+    // Depend on live prices, so rebuilt lazily after a price update
+    private int[] byPrice;
+    private int[] byUpside;
+    private final Scratch scratch;
+
+    /** Row marks for prefix filtering; shared by every index of the same result. */
+    private static final class Scratch {
+        final int[] marks;
+        int stamp;
+
+        Scratch(int size) {
+            marks = new int[size];
+        }
+
+        int next() {
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                stamp = 1;
+            }
+            return stamp;
+        }
+    }
+
+    private PortfolioIndex(PortfolioSnapshot snapshot, String[] sortedSymbols, int[] bySymbol,
+                           int[] byInvested, int[] byAdvice, String[] adviceLabels,
+                           int[] adviceLabelIds, Scratch scratch) {
+        this.snapshot = snapshot;
+        this.sortedSymbols = sortedSymbols;
+        this.bySymbol = bySymbol;
+        this.byInvested = byInvested;
+        this.byAdvice = byAdvice;
+        this.adviceLabels = adviceLabels;
+        this.adviceLabelIds = adviceLabelIds;
+        this.scratch = scratch;
+    }
+
+    public static PortfolioIndex build(PortfolioSnapshot snapshot) {
+        int n = snapshot.size();
+        String[] symbols = new String[n];
+        String[] advice = new String[n];
+        for (int i = 0; i < n; i++) {
+            symbols[i] = snapshot.symbol(i).toUpperCase(Locale.ROOT);
+            advice[i] = snapshot.advice(i);
+        }
+
+        int[] bySymbol = sortedRows(n, (a, b) -> symbols[a].compareTo(symbols[b]));
+        String[] sortedSymbols = new String[n];
+        for (int i = 0; i < n; i++) sortedSymbols[i] = symbols[bySymbol[i]];
+
+        int[] byInvested = sortedRows(n, (a, b) -> Double.compare(snapshot.invested[a], snapshot.invested[b]));
+        int[] byAdvice = sortedRows(n, (a, b) -> {
+            int c = advice[a].compareTo(advice[b]);
+            return c != 0 ? c : symbols[a].compareTo(symbols[b]);
+        });
+
+        // Distinct labels fall out of byAdvice in order
+        int distinct = 0;
+        String[] labels = new String[n];
+        int[] labelIds = new int[n];
+        for (int i = 0; i < n; i++) {
+            int row = byAdvice[i];
+            if (distinct == 0 || !labels[distinct - 1].equals(advice[row])) {
+                labels[distinct] = advice[row];
+                labelIds[distinct] = snapshot.adviceIds[row];
+                distinct++;
+            }
+        }
+
+        return new PortfolioIndex(snapshot, sortedSymbols, bySymbol, byInvested, byAdvice,
+                Arrays.copyOf(labels, distinct), Arrays.copyOf(labelIds, distinct), new Scratch(n));
+    }
+
+    /** True if {@code other} has the same rows as this index (e.g. only prices moved). */
+    public boolean covers(PortfolioSnapshot other) {
+        return other.symbolIds == snapshot.symbolIds;
+    }
+
+    /** The index for a price-updated snapshot of the same rows; only the price orders are redone. */
+    public PortfolioIndex withSnapshot(PortfolioSnapshot updated) {
+        if (updated == snapshot) return this;
+        if (!covers(updated)) return build(updated);
+        return new PortfolioIndex(updated, sortedSymbols, bySymbol, byInvested, byAdvice,
+                adviceLabels, adviceLabelIds, scratch);
+    }
+
+    public PortfolioSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /** Distinct advice labels in this result, alphabetically. */
+    public String[] adviceLabels() {
+        return adviceLabels.clone();
+    }
+
+    /**
+     * Fills {@code out} (at least {@link PortfolioSnapshot#size()} long) with the indexes of rows
+     * whose symbol starts with {@code prefix} (case-insensitive) and whose advice is
+     * {@code advice} (null for any), in {@code sort} order. Returns how many were written.
+     */
+    public int query(String prefix, String advice, Sort sort, boolean descending, int[] out) {
+        int n = snapshot.size();
+        int lo = 0;
+        int hi = n;
+        if (prefix != null && !prefix.isEmpty()) {
+            String key = prefix.toUpperCase(Locale.ROOT);
+            lo = lowerBound(key);
+            hi = prefixEnd(key, lo);
+        }
+        int adviceId = -1;
+        if (advice != null) {
+            adviceId = adviceIdOf(advice);
+            if (adviceId < 0) return 0;
+        }
+
+        int count = 0;
+        if (sort == Sort.SYMBOL) {
+            for (int k = 0; k < hi - lo; k++) {
+                int row = bySymbol[descending ? hi - 1 - k : lo + k];
+                if (adviceId < 0 || snapshot.adviceIds[row] == adviceId) out[count++] = row;
+            }
+            return count;
+        }
+
+        boolean everyRow = hi - lo == n;
+        int stamp = 0;
+        if (!everyRow) {
+            stamp = scratch.next();
+            for (int i = lo; i < hi; i++) scratch.marks[bySymbol[i]] = stamp;
+        }
+        int[] order = permutation(sort);
+        for (int k = 0; k < n; k++) {
+            int position = descending ? n - 1 - k : k;
+            int row = order != null ? order[position] : position;
+            if (!everyRow && scratch.marks[row] != stamp) continue;
+            if (adviceId >= 0 && snapshot.adviceIds[row] != adviceId) continue;
+            out[count++] = row;
+        }
+        return count;
+    }
+
+    private int adviceIdOf(String label) {
+        for (int i = 0; i < adviceLabels.length; i++) {
+            if (adviceLabels[i].equals(label)) return adviceLabelIds[i];
+        }
+        return -1;
+    }
+
+    // null means server order
+    private int[] permutation(Sort sort) {
+        switch (sort) {
+            case PRICE:
+                if (byPrice == null) {
+                    byPrice = sortedRows(snapshot.size(),
+                            (a, b) -> Double.compare(snapshot.currentPrice[a], snapshot.currentPrice[b]));
+                }
+                return byPrice;
+            case UPSIDE:
+                if (byUpside == null) {
+                    double[] upside = new double[snapshot.size()];
+                    for (int i = 0; i < upside.length; i++) upside[i] = upside(i);
+                    byUpside = sortedRows(upside.length, (a, b) -> Double.compare(upside[a], upside[b]));
+                }
+                return byUpside;
+            case INVESTED:
+                return byInvested;
+            case ADVICE:
+                return byAdvice;
+            case SYMBOL:
+                return bySymbol;
+            default:
+                return null;
+        }
+    }
+
+    /** Predicted move relative to the current price; rows without a prediction sort lowest. */
+    double upside(int row) {
+        double current = snapshot.currentPrice[row];
+        double predicted = snapshot.predictedPrice[row];
+        if (current <= 0 || predicted <= 0) return Double.NEGATIVE_INFINITY;
+        return (predicted - current) / current;
+    }
+
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = sortedSymbols.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedSymbols[mid].compareTo(key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Symbols sharing a prefix are contiguous from lowerBound, so this is a binary search too
+    private int prefixEnd(String key, int from) {
+        int lo = from;
+        int hi = sortedSymbols.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedSymbols[mid].startsWith(key)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private interface RowComparator {
+        int compare(int a, int b);
+    }
+
+    // Stable merge sort of row indexes 0..n-1; avoids boxing every index into an Integer
+    private static int[] sortedRows(int n, RowComparator comparator) {
+        int[] rows = new int[n];
+        for (int i = 0; i < n; i++) rows[i] = i;
+        int[] buffer = new int[n];
+        for (int width = 1; width < n; width *= 2) {
+            for (int lo = 0; lo < n - width; lo += 2 * width) {
+                int mid = lo + width;
+                int hi = Math.min(lo + 2 * width, n);
+                int i = lo;
+                int j = mid;
+                int k = lo;
+                while (i < mid && j < hi) {
+                    buffer[k++] = comparator.compare(rows[j], rows[i]) < 0 ? rows[j++] : rows[i++];
+                }
+                while (i < mid) buffer[k++] = rows[i++];
+                while (j < hi) buffer[k++] = rows[j++];
+                System.arraycopy(buffer, lo, rows, lo, hi - lo);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,197 @@
+package com.trader.stockadvisorai;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One immutable result set in columnar form: interned symbol/advice IDs and one primitive array
+ * per numeric field. A price update copies only the price column; the others are shared.
+ * A streamed result starts {@link State#STREAMING} and grows with {@link #append} until it is
+ * {@link #completed} or, if the stream broke off, {@link #truncated}.
+ */
+public final class PortfolioSnapshot {
+
+    public enum State {
+        STREAMING,
+        COMPLETE,
+        /** The stream stopped early; the rows are real but not the whole result. */
+        TRUNCATED
+    }
+
+    public final String resultId;
+    private final SymbolTable table;
+    final int[] symbolIds;
+    final int[] adviceIds;
+    final double[] currentPrice;
+    final int[] quantity;
+    final double[] invested;
+    final double[] yesterdayClose;
+    final double[] predictedPrice;
+    private final State state;
+
+    private PortfolioSnapshot(String resultId, SymbolTable table, int[] symbolIds, int[] adviceIds,
+                              double[] currentPrice, int[] quantity, double[] invested,
+                              double[] yesterdayClose, double[] predictedPrice, State state) {
+        this.resultId = resultId;
+        this.table = table;
+        this.symbolIds = symbolIds;
+        this.adviceIds = adviceIds;
+        this.currentPrice = currentPrice;
+        this.quantity = quantity;
+        this.invested = invested;
+        this.yesterdayClose = yesterdayClose;
+        this.predictedPrice = predictedPrice;
+        this.state = state;
+    }
+
+    public static PortfolioSnapshot of(String resultId, List<StockResult> rows, SymbolTable table) {
+        return empty(resultId, table, State.COMPLETE).append(rows);
+    }
+
+    /** A result whose rows are still arriving. */
+    static PortfolioSnapshot pending(String resultId, SymbolTable table) {
+        return empty(resultId, table, State.STREAMING);
+    }
+
+    private static PortfolioSnapshot empty(String resultId, SymbolTable table, State state) {
+        return new PortfolioSnapshot(resultId, table, new int[0], new int[0], new double[0], new int[0],
+                new double[0], new double[0], new double[0], state);
+    }
+
+    /** This snapshot with {@code rows} added at the end. */
+    PortfolioSnapshot append(List<StockResult> rows) {
+        int from = size();
+        int n = from + rows.size();
+        int[] symbolIds = Arrays.copyOf(this.symbolIds, n);
+        int[] adviceIds = Arrays.copyOf(this.adviceIds, n);
+        double[] current = Arrays.copyOf(currentPrice, n);
+        int[] quantity = Arrays.copyOf(this.quantity, n);
+        double[] invested = Arrays.copyOf(this.invested, n);
+        double[] yesterday = Arrays.copyOf(yesterdayClose, n);
+        double[] predicted = Arrays.copyOf(predictedPrice, n);
+        for (int i = from; i < n; i++) {
+            StockResult row = rows.get(i - from);
+            symbolIds[i] = table.intern(row.symbol);
+            adviceIds[i] = table.intern(row.advice);
+            current[i] = row.currentPrice;
+            quantity[i] = row.quantity;
+            invested[i] = row.invested;
+            yesterday[i] = row.yesterdayClose;
+            predicted[i] = row.predictedPrice;
+        }
+        return new PortfolioSnapshot(resultId, table, symbolIds, adviceIds, current, quantity,
+                invested, yesterday, predicted, state);
+    }
+
+    /** Same rows, marked as the whole result. */
+    PortfolioSnapshot completed() {
+        return withState(State.COMPLETE);
+    }
+
+    /** Same rows, marked as cut short. */
+    PortfolioSnapshot truncated() {
+        return withState(State.TRUNCATED);
+    }
+
+    private PortfolioSnapshot withState(State state) {
+        if (this.state == state) return this;
+        return new PortfolioSnapshot(resultId, table, symbolIds, adviceIds, currentPrice, quantity,
+                invested, yesterdayClose, predictedPrice, state);
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public boolean isStreaming() {
+        return state == State.STREAMING;
+    }
+
+    public boolean isComplete() {
+        return state == State.COMPLETE;
+    }
+
+    /** True if this snapshot begins with exactly the rows of {@code earlier} (e.g. more rows streamed in). */
+    public boolean startsWith(PortfolioSnapshot earlier) {
+        int n = earlier.size();
+        if (n > size() || table != earlier.table) return false;
+        for (int i = 0; i < n; i++) {
+            if (symbolIds[i] != earlier.symbolIds[i]) return false;
+        }
+        return true;
+    }
+
+    /** Content-derived ID: the same rows always get the same ID, whatever wire format they came in. */
+    static String idFor(List<StockResult> rows) {
+        MessageDigest digest = ContentHash.newDigest();
+        ByteBuffer numbers = ByteBuffer.allocate(5 * 8 + 4);
+        for (StockResult row : rows) {
+            digest.update(row.symbol.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(row.advice.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            numbers.clear();
+            numbers.putDouble(row.currentPrice).putInt(row.quantity).putDouble(row.invested)
+                    .putDouble(row.yesterdayClose).putDouble(row.predictedPrice);
+            digest.update(numbers.array(), 0, numbers.position());
+        }
+        return ContentHash.hex(digest.digest()).substring(0, 32);
+    }
+
+    public int size() {
+        return symbolIds.length;
+    }
+
+    public String symbol(int i) {
+        return table.name(symbolIds[i]);
+    }
+
+    public String advice(int i) {
+        return table.name(adviceIds[i]);
+    }
+
+    public double currentPrice(int i) {
+        return currentPrice[i];
+    }
+
+    /** True if {@code row} already holds exactly the values at index {@code i}. */
+    public boolean matches(int i, StockResult row) {
+        return row.symbol.equals(symbol(i))
+                && Double.compare(row.currentPrice, currentPrice[i]) == 0
+                && row.quantity == quantity[i]
+                && Double.compare(row.invested, invested[i]) == 0
+                && Double.compare(row.yesterdayClose, yesterdayClose[i]) == 0
+                && Double.compare(row.predictedPrice, predictedPrice[i]) == 0
+                && row.advice.equals(advice(i));
+    }
+
+    public StockResult row(int i) {
+        return new StockResult(symbol(i), currentPrice[i], quantity[i], invested[i],
+                yesterdayClose[i], predictedPrice[i], advice(i));
+    }
+
+    public List<StockResult> rows() {
+        List<StockResult> rows = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) rows.add(row(i));
+        return rows;
+    }
+
+    /** Same snapshot with live prices applied, or {@code this} if nothing changed. */
+    PortfolioSnapshot withPrices(Map<String, Double> prices) {
+        double[] updated = null;
+        for (int i = 0; i < size(); i++) {
+            Double price = prices.get(symbol(i));
+            if (price == null || Double.compare(price, currentPrice[i]) == 0) continue;
+            if (updated == null) updated = currentPrice.clone();
+            updated[i] = price;
+        }
+        if (updated == null) return this;
+        return new PortfolioSnapshot(resultId, table, symbolIds, adviceIds, updated, quantity,
+                invested, yesterdayClose, predictedPrice, state);
+    }
+}
@@ -0,0 +1,316 @@
+package com.trader.stockadvisorai;
+
+import android.content.Context;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Process-wide home for result sets. Screens hand each other a result ID instead of the raw
+ * response in an Intent extra, so a large portfolio is parsed once, held once in columnar form
+ * ({@link PortfolioSnapshot}) and never pushed through the Binder transaction buffer.
+ *
+ * <p>Memory is bounded by result count and total rows; the least recently used result that
+ * no screen is observing goes first. Every result is also written to cacheDir/portfolios so a
+ * screen restored after process death can still find it through {@link #load}.
+ *
+ * <p>A streamed result is opened with {@link #begin}, grows with {@link #append} and is kept in
+ * memory (and off disk) until {@link #complete}; observers see every step. One that breaks off
+ * is {@link #truncate}d instead: still shown, but never written to disk.
+ */
+public class PortfolioStore {
+
+    private static final String TAG = "PortfolioStore";
+    static final int MAX_RESULTS = 8;
+    static final int MAX_ROWS = 50_000;
+    private static final int MAX_DISK_ENTRIES = 16;
+
+    private static volatile PortfolioStore instance;
+
+    private final SymbolTable symbols = new SymbolTable();
+    private final LinkedHashMap<String, PortfolioSnapshot> results = new LinkedHashMap<>(16, 0.75f, true);
+    // Only LiveData that currently have observers; lists are replaced, never changed in place
+    private final Map<String, List<ObservedResult>> observed = new HashMap<>();
+    private final Map<String, BackendClient.Subscription> producers = new HashMap<>();
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final File dir;
+    private int totalRows;
+
+    public static PortfolioStore get(Context context) {
+        if (instance == null) {
+            synchronized (PortfolioStore.class) {
+                if (instance == null) {
+                    instance = new PortfolioStore(new File(context.getApplicationContext().getCacheDir(), "portfolios"));
+                }
+            }
+        }
+        return instance;
+    }
+
+    PortfolioStore(File dir) {
+        this.dir = dir;
+    }
+
+    /** Stores {@code rows} and returns the handle to pass between screens; call off the main thread. */
+    @WorkerThread
+    public String put(List<StockResult> rows) {
+        String id = PortfolioSnapshot.idFor(rows);
+        boolean added = insert(PortfolioSnapshot.of(id, rows, symbols));
+        if (added) diskExecutor.execute(() -> writeToDisk(id, rows));
+        return id;
+    }
+
+    /** Parses a backend response and stores it; call off the main thread. */
+    @WorkerThread
+    public String putJson(String json) throws IOException {
+        return put(StockResponseParser.parse(json));
+    }
+
+    /** Starts a result whose rows arrive over time; {@link #cancel} cancels {@code producer}. */
+    public void begin(String id, BackendClient.Subscription producer) {
+        PortfolioSnapshot snapshot = PortfolioSnapshot.pending(id, symbols);
+        synchronized (this) {
+            PortfolioSnapshot previous = results.remove(id);
+            if (previous != null) totalRows -= previous.size();
+            results.put(id, snapshot);
+            producers.put(id, producer);
+        }
+        publish(snapshot);
+    }
+
+    /** Adds streamed rows to a result opened with {@link #begin}. */
+    public void append(String id, List<StockResult> rows) {
+        PortfolioSnapshot updated;
+        synchronized (this) {
+            PortfolioSnapshot current = results.get(id);
+            if (current == null || !current.isStreaming()) return;
+            updated = current.append(rows);
+            results.put(id, updated);
+            totalRows += rows.size();
+            evict(id);
+        }
+        publish(updated);
+    }
+
+    /** Every row has arrived; the result is now persisted like any other. */
+    public void complete(String id) {
+        PortfolioSnapshot done = finish(id, false);
+        if (done != null) diskExecutor.execute(() -> writeToDisk(id, done.rows()));
+    }
+
+    /** The stream stopped early; the rows so far stay visible but are never persisted. */
+    public void truncate(String id) {
+        finish(id, true);
+    }
+
+    /** Stops a result that is still streaming, keeping the rows received so far. */
+    public void cancel(String id) {
+        BackendClient.Subscription producer;
+        synchronized (this) {
+            producer = producers.remove(id);
+        }
+        if (producer == null) return;
+        producer.cancel();
+        truncate(id);
+    }
+
+    @Nullable
+    private PortfolioSnapshot finish(String id, boolean truncated) {
+        PortfolioSnapshot done;
+        synchronized (this) {
+            producers.remove(id);
+            PortfolioSnapshot current = results.get(id);
+            if (current == null || !current.isStreaming()) return null;
+            done = truncated ? current.truncated() : current.completed();
+            results.put(id, done);
+        }
+        publish(done);
+        return done;
+    }
+
+    /** The result if it is still in memory. */
+    @Nullable
+    public synchronized PortfolioSnapshot get(String id) {
+        return results.get(id);
+    }
+
+    /** The result from memory, or re-read from disk if it was evicted or the process restarted. */
+    @WorkerThread
+    @Nullable
+    public PortfolioSnapshot load(String id) {
+        PortfolioSnapshot snapshot = get(id);
+        if (snapshot != null) return snapshot;
+
+        File file = new File(dir, id + ".json");
+        if (!file.exists()) return null;
+        try (InputStream in = new FileInputStream(file)) {
+            snapshot = PortfolioSnapshot.of(id, StockResponseParser.parse(in), symbols);
+        } catch (IOException e) {
+            Log.w(TAG, "Dropping unreadable result " + id, e);
+            file.delete();
+            return null;
+        }
+        insert(snapshot);
+        return get(id);
+    }
+
+    /**
+     * Emits the current snapshot of {@code id} and every later update (e.g. live prices). The store
+     * only tracks the returned LiveData while something observes it, so an ID that is never loaded
+     * holds nothing once its screen goes away.
+     */
+    public LiveData<PortfolioSnapshot> observe(String id) {
+        return new ObservedResult(id);
+    }
+
+    /** How many results are being observed right now. */
+    synchronized int observedCount() {
+        return observed.size();
+    }
+
+    /**
+     * Joins {@link #observed} when it gains an active observer and leaves once its last observer is
+     * removed. An observer that was only stopped stays registered, so the result it shows is still
+     * kept from eviction and still updated.
+     */
+    private final class ObservedResult extends MutableLiveData<PortfolioSnapshot> {
+        private final String id;
+
+        ObservedResult(String id) {
+            this.id = id;
+        }
+
+        @Override
+        protected void onActive() {
+            PortfolioSnapshot current;
+            synchronized (PortfolioStore.this) {
+                List<ObservedResult> watchers = observed.get(id);
+                if (watchers == null || !watchers.contains(this)) {
+                    List<ObservedResult> next = watchers == null ? new ArrayList<>(1) : new ArrayList<>(watchers);
+                    next.add(this);
+                    observed.put(id, next);
+                }
+                current = results.get(id);
+            }
+            // Catches up on anything published while nobody was attached
+            if (current != null && current != getValue()) setValue(current);
+        }
+
+        @Override
+        public void removeObserver(@NonNull Observer<? super PortfolioSnapshot> observer) {
+            super.removeObserver(observer);
+            if (hasObservers()) return;
+            synchronized (PortfolioStore.this) {
+                List<ObservedResult> watchers = observed.get(id);
+                if (watchers == null || !watchers.contains(this)) return;
+                if (watchers.size() == 1) {
+                    observed.remove(id);
+                } else {
+                    List<ObservedResult> next = new ArrayList<>(watchers);
+                    next.remove(this);
+                    observed.put(id, next);
+                }
+            }
+        }
+    }
+
+    /** Applies live prices to a stored result; only the price column is copied. */
+    public void updatePrices(String id, Map<String, Double> prices) {
+        PortfolioSnapshot updated;
+        synchronized (this) {
+            PortfolioSnapshot current = results.get(id);
+            if (current == null) return;
+            updated = current.withPrices(prices);
+            if (updated == current) return;
+            results.put(id, updated);
+        }
+        publish(updated);
+    }
+
+    private boolean insert(PortfolioSnapshot snapshot) {
+        synchronized (this) {
+            PortfolioSnapshot existing = results.get(snapshot.resultId);
+            if (existing != null) return false;
+            results.put(snapshot.resultId, snapshot);
+            totalRows += snapshot.size();
+            evict(snapshot.resultId);
+        }
+        publish(snapshot);
+        return true;
+    }
+
+    // Oldest first, skipping anything a screen still shows, still streaming, or just added
+    private void evict(String keep) {
+        Iterator<Map.Entry<String, PortfolioSnapshot>> it = results.entrySet().iterator();
+        while ((results.size() > MAX_RESULTS || totalRows > MAX_ROWS) && it.hasNext()) {
+            Map.Entry<String, PortfolioSnapshot> entry = it.next();
+            String id = entry.getKey();
+            if (id.equals(keep) || entry.getValue().isStreaming() || observed.containsKey(id)) continue;
+            it.remove();
+            totalRows -= entry.getValue().size();
+        }
+    }
+
+    private void publish(PortfolioSnapshot snapshot) {
+        List<ObservedResult> watchers;
+        synchronized (this) {
+            watchers = observed.get(snapshot.resultId);
+        }
+        if (watchers == null) return;
+        boolean mainThread = Looper.myLooper() == Looper.getMainLooper();
+        for (ObservedResult live : watchers) {
+            if (mainThread) {
+                live.setValue(snapshot);
+            } else {
+                live.postValue(snapshot);
+            }
+        }
+    }
+
+    private void writeToDisk(String id, List<StockResult> rows) {
+        if (!dir.exists() && !dir.mkdirs()) return;
+        File tmp = new File(dir, id + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8)) {
+            StockResponseWriter.write(rows, writer);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write result " + id, e);
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(new File(dir, id + ".json"))) tmp.delete();
+        trimDisk();
+    }
+
+    private void trimDisk() {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".json"));
+        if (files == null || files.length <= MAX_DISK_ENTRIES) return;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (int i = 0; i < files.length - MAX_DISK_ENTRIES; i++) {
+            files[i].delete();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.trader.stockadvisorai;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+import com.google.android.gms.tasks.Task;
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.text.Text;
+import com.google.mlkit.vision.text.TextRecognition;
+import com.google.mlkit.vision.text.TextRecognizer;
+import com.google.mlkit.vision.text.latin.TextRecognizerOptions;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/** Runs ML Kit text recognition on a portfolio screenshot and parses the holdings table. */
+public class PortfolioTextExtractor implements Closeable {
+
+    /** Below this share of parsed rows the screenshot goes to the backend OCR instead. */
+    public static final float MIN_CONFIDENCE = 0.6f;
+
+    private final TextRecognizer recognizer = TextRecognition.getClient(TextRecognizerOptions.DEFAULT_OPTIONS);
+    // ML Kit completes on the main thread; grouping and scanning a long table runs here instead
+    private final ExecutorService parser = Executors.newSingleThreadExecutor();
+
+    /** The result's listeners still run on the main thread. */
+    public Task<HoldingsTableParser.Result> extract(Bitmap bitmap) {
+        return recognizer.process(InputImage.fromBitmap(bitmap, 0))
+                .continueWith(parser, task -> HoldingsTableParser.parse(toLines(task.getResult())));
+    }
+
+    private static List<HoldingsTableParser.Line> toLines(Text text) {
+        List<HoldingsTableParser.Line> lines = new ArrayList<>();
+        for (Text.TextBlock block : text.getTextBlocks()) {
+            for (Text.Line line : block.getLines()) {
+                Rect box = line.getBoundingBox();
+                if (box == null) continue;
+                lines.add(new HoldingsTableParser.Line(line.getText(), box.top, box.bottom, box.left));
+            }
+        }
+        return lines;
+    }
+
+    @Override
+    public void close() {
+        recognizer.close();
+        parser.shutdown();
+    }
+}
@@ -0,0 +1,200 @@
+package com.trader.stockadvisorai;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import okio.BufferedSink;
+import okio.Okio;
+
+/**
+ * Uploads a portfolio screenshot in the background through {@link ResumableUploader}. The image
+ * is encoded once to a stable file, so a retry after a dropped connection or process death
+ * resumes from the last acknowledged chunk. The analysis JSON is written to a file whose path
+ * is returned as {@link #KEY_RESULT_PATH}.
+ *
+ * <p>Before encoding anything the worker looks the image's content hash up in
+ * {@link AnalysisResultCache}, revalidating a stale copy against the backend under the digest the
+ * server gave it, so an unchanged screenshot is never uploaded twice.
+ */
+public class PortfolioUploadWorker extends Worker {
+
+    public static final String UNIQUE_NAME = "portfolio_upload";
+    public static final String KEY_IMAGE_URI = "image_uri";
+    public static final String KEY_CONTENT_HASH = "content_hash";
+    public static final String KEY_RESULT_PATH = "result_path";
+    public static final String KEY_ERROR = "error";
+
+    private static final String TAG = "PortfolioUpload";
+    private static final String PREFS = "resumable_uploads";
+
+    public PortfolioUploadWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /** {@code contentHash} may be null; the worker then hashes the image itself. */
+    public static OneTimeWorkRequest enqueue(Context context, Uri imageUri, String contentHash) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(PortfolioUploadWorker.class)
+                .setInputData(new Data.Builder()
+                        .putString(KEY_IMAGE_URI, imageUri.toString())
+                        .putString(KEY_CONTENT_HASH, contentHash)
+                        .build())
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 10, TimeUnit.SECONDS)
+                .build();
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(UNIQUE_NAME, ExistingWorkPolicy.REPLACE, request);
+        return request;
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        String uri = getInputData().getString(KEY_IMAGE_URI);
+        if (uri == null) return Result.failure();
+
+        String key = getId().toString();
+        File dir = new File(getApplicationContext().getCacheDir(), "uploads");
+        File encoded = new File(dir, key + ".img");
+
+        try {
+            String contentHash = getInputData().getString(KEY_CONTENT_HASH);
+            if (contentHash == null) contentHash = hash(Uri.parse(uri));
+
+            ResumableUploader uploader = newUploader(getApplicationContext());
+            AnalysisResultCache cache = AnalysisResultCache.get(getApplicationContext());
+
+            String json = lookupExisting(uploader, cache, contentHash);
+            if (json == null) {
+                if (!encoded.exists()) {
+                    encode(Uri.parse(uri), dir, encoded);
+                }
+                ResumableUploader.Analysis analysis = uploader.upload(key, encoded);
+                cache.put(contentHash, analysis.json, analysis.digest, analysis.etag);
+                json = analysis.json;
+            }
+
+            File result = writeResult(key, json);
+            encoded.delete();
+            return Result.success(new Data.Builder().putString(KEY_RESULT_PATH, result.getAbsolutePath()).build());
+        } catch (ResumableUploader.UploadRejectedException e) {
+            Log.e(TAG, "Upload rejected", e);
+            encoded.delete();
+            return Result.failure(new Data.Builder().putString(KEY_ERROR, e.getMessage()).build());
+        } catch (IOException e) {
+            Log.w(TAG, "Upload interrupted, will resume", e);
+            return Result.retry();
+        }
+    }
+
+    private static ResumableUploader newUploader(Context context) {
+        return new ResumableUploader(BackendClient.get().httpClient(), BackendClient.get().url("/"),
+                new PrefsStateStore(context), ResumableUploader.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * The JSON of an earlier analysis of the same image, from the local cache or (conditionally)
+     * the backend, or null if the image has to be uploaded. Blocks on the network.
+     */
+    static String lookupExisting(Context context, String contentHash) throws IOException {
+        return lookupExisting(newUploader(context), AnalysisResultCache.get(context), contentHash);
+    }
+
+    // ♻️ Returns the JSON of an earlier analysis of the same image, or null if it has to be uploaded
+    private static String lookupExisting(ResumableUploader uploader, AnalysisResultCache cache,
+                                         String contentHash) throws IOException {
+        AnalysisResultCache.Entry local = cache.get(contentHash);
+        if (local == null) return null;
+        if (local.isFresh(System.currentTimeMillis())) return local.json;
+        // The server only knows results by its own hash of what it was sent
+        if (local.digest == null) return null;
+
+        ResumableUploader.Analysis remote = uploader.lookup(local.digest, local.etag);
+        if (remote == null) return null;
+        if (remote.notModified) {
+            return cache.revalidated(contentHash, local).json;
+        }
+        if (remote.json == null) return null;
+        cache.put(contentHash, remote.json, remote.digest, remote.etag);
+        return remote.json;
+    }
+
+    private String hash(Uri uri) throws IOException {
+        try (InputStream in = getApplicationContext().getContentResolver().openInputStream(uri)) {
+            if (in == null) throw new IOException("Cannot open " + uri);
+            return ContentHash.sha256(in);
+        }
+    }
+
+    private void encode(Uri uri, File dir, File target) throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        File tmp = new File(dir, target.getName() + ".tmp");
+        ImageUploadBody body = new ImageUploadBody(getApplicationContext().getContentResolver(), uri);
+        try (BufferedSink sink = Okio.buffer(Okio.sink(tmp))) {
+            body.writeTo(sink);
+        }
+        if (!tmp.renameTo(target)) throw new IOException("Cannot write " + target);
+    }
+
+    private File writeResult(String key, String json) throws IOException {
+        File dir = new File(getApplicationContext().getFilesDir(), "upload_results");
+        if (!dir.exists() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        File file = new File(dir, key + ".json");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(json);
+        }
+        return file;
+    }
+
+    /** Upload ID and acknowledged offset per work item, kept across process death. */
+    static class PrefsStateStore implements ResumableUploader.StateStore {
+        private final SharedPreferences prefs;
+
+        PrefsStateStore(Context context) {
+            prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        }
+
+        @Override
+        public String uploadId(String key) {
+            return prefs.getString(key + ".id", null);
+        }
+
+        @Override
+        public long offset(String key) {
+            return prefs.getLong(key + ".offset", 0);
+        }
+
+        @Override
+        public void save(String key, String uploadId, long offset) {
+            prefs.edit().putString(key + ".id", uploadId).putLong(key + ".offset", offset).apply();
+        }
+
+        @Override
+        public void clear(String key) {
+            prefs.edit().remove(key + ".id").remove(key + ".offset").apply();
+        }
+    }
+}
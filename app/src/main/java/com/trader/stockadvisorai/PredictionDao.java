@@ -0,0 +1,38 @@
+package com.trader.stockadvisorai;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface PredictionDao {
+
+    /** Rows whose docId is already stored are skipped (-1), which makes replays idempotent. */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    List<Long> insertAll(List<PredictionEntity> entries);
+
+    /** Served by the (symbol, timestamp) index; the uid check only filters what it returns. */
+    @Query("SELECT * FROM predictions WHERE symbol = :symbol AND uid = :uid ORDER BY timestamp DESC LIMIT :limit")
+    List<PredictionEntity> recentForSymbol(String uid, String symbol, int limit);
+
+    @Query("SELECT * FROM predictions WHERE symbol = :symbol AND uid = :uid "
+            + "AND timestamp BETWEEN :from AND :to ORDER BY timestamp DESC")
+    List<PredictionEntity> forSymbolBetween(String uid, String symbol, long from, long to);
+
+    @Query("SELECT * FROM predictions WHERE synced = 0 ORDER BY id LIMIT :limit")
+    List<PredictionEntity> pending(int limit);
+
+    @Query("UPDATE predictions SET synced = 1 WHERE id IN (:ids)")
+    void markSynced(List<Long> ids);
+
+    /** Only synced rows are pruned, so retention never drops unsent history. */
+    @Query("DELETE FROM predictions WHERE synced = 1 AND timestamp < :cutoff")
+    int deleteSyncedBefore(long cutoff);
+
+    @Query("DELETE FROM predictions WHERE synced = 1 AND id NOT IN "
+            + "(SELECT id FROM predictions ORDER BY timestamp DESC LIMIT :keep)")
+    int trimSyncedTo(int keep);
+}
@@ -0,0 +1,46 @@
+package com.trader.stockadvisorai;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+@Database(entities = {PredictionEntity.class}, version = 2, exportSchema = true)
+public abstract class PredictionDatabase extends RoomDatabase {
+
+    private static final String NAME = "predictions.db";
+
+    /** Add a Migration here for every version bump; exported schemas live in app/schemas. */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            // Existing rows keep a null docId; SQLite lets unique indexes hold many NULLs
+            db.execSQL("ALTER TABLE predictions ADD COLUMN docId TEXT");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS index_predictions_docId ON predictions (docId)");
+        }
+    };
+
+    static final Migration[] MIGRATIONS = {MIGRATION_1_2};
+
+    private static volatile PredictionDatabase instance;
+
+    public abstract PredictionDao predictionDao();
+
+    public static PredictionDatabase get(Context context) {
+        if (instance == null) {
+            synchronized (PredictionDatabase.class) {
+                if (instance == null) {
+                    instance = Room.databaseBuilder(context.getApplicationContext(),
+                                    PredictionDatabase.class, NAME)
+                            .addMigrations(MIGRATIONS)
+                            .build();
+                }
+            }
+        }
+        return instance;
+    }
+}
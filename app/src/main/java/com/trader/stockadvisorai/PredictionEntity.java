@@ -0,0 +1,61 @@
+package com.trader.stockadvisorai;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Local copy of a {@code prediction_history} entry; {@code synced} flips once Firestore has it.
+ * {@code docId} is derived from the response and symbol, so recording the same response twice is
+ * a no-op here and an upsert in Firestore.
+ */
+@Entity(tableName = "predictions",
+        indices = {@Index(value = {"symbol", "timestamp"}), @Index(value = {"synced"}),
+                @Index(value = {"docId"}, unique = true)})
+public class PredictionEntity {
+
+    @PrimaryKey(autoGenerate = true)
+    public long id;
+
+    /** Firestore document ID; null for rows recorded before version 2. */
+    @Nullable
+    public String docId;
+
+    public String uid;
+    @NonNull
+    public String symbol = "";
+    public double currentPrice;
+    public int quantity;
+    public double invested;
+    public double yesterdayClose;
+    public double predictedPrice;
+    public String advice;
+    public long timestamp;
+    public boolean synced;
+
+    public static PredictionEntity from(String responseId, StockResult stock, String uid, long timestamp) {
+        PredictionEntity entity = new PredictionEntity();
+        entity.docId = docId(responseId, uid, stock.symbol);
+        entity.uid = uid;
+        entity.symbol = stock.symbol;
+        entity.currentPrice = stock.currentPrice;
+        entity.quantity = stock.quantity;
+        entity.invested = stock.invested;
+        entity.yesterdayClose = stock.yesterdayClose;
+        entity.predictedPrice = stock.predictedPrice;
+        entity.advice = stock.advice;
+        entity.timestamp = timestamp;
+        return entity;
+    }
+
+    /** e.g. {@code 3f2a…_uid123_TCS.NS}; the uid keeps identical responses of two users apart. */
+    static String docId(String responseId, String uid, String symbol) {
+        return responseId + "_" + (uid != null ? uid : "anonymous") + "_" + symbol.replace('/', '_');
+    }
+
+    public StockResult toStockResult() {
+        return new StockResult(symbol, currentPrice, quantity, invested, yesterdayClose, predictedPrice, advice);
+    }
+}
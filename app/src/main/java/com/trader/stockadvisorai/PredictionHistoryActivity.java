@@ -0,0 +1,167 @@
+package com.trader.stockadvisorai;
+
+import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.View;
+import android.widget.CheckBox;
+import android.widget.EditText;
+import android.widget.ProgressBar;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+public class PredictionHistoryActivity extends AppCompatActivity {
+
+    public static final String EXTRA_PAGE_SIZE = "page_size";
+
+    /** Start loading the next page this many rows before the end of the list. */
+    private static final int PREFETCH_DISTANCE = 5;
+    /** How many local predictions the symbol filter shows. */
+    private static final int FILTER_LIMIT = 30;
+    private static final long FILTER_WINDOW_MS = TimeUnit.DAYS.toMillis(30);
+
+    private ProgressBar progressBar;
+    private PredictionHistoryAdapter adapter;
+    private PredictionHistoryPager pager;
+    private final PredictionHistoryAdapter filteredAdapter = new PredictionHistoryAdapter();
+    private RecyclerView historyList;
+    private EditText symbolFilter;
+    private CheckBox lastMonthOnly;
+    private String uid;
+    // Bumped on every filter change, so a slow local read never overwrites a newer one
+    private int filterGeneration;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_prediction_history);
+
+        progressBar = findViewById(R.id.progressBar);
+        historyList = findViewById(R.id.historyList);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        historyList.setLayoutManager(layoutManager);
+        adapter = new PredictionHistoryAdapter();
+        historyList.setAdapter(adapter);
+
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) {
+            Toast.makeText(this, "Not logged in", Toast.LENGTH_SHORT).show();
+            finish();
+            return;
+        }
+
+        uid = user.getUid();
+
+        int pageSize = getIntent().getIntExtra(EXTRA_PAGE_SIZE, PredictionHistoryPager.DEFAULT_PAGE_SIZE);
+        pager = new PredictionHistoryPager(FirebaseFirestore.getInstance(), user.getUid(), pageSize,
+                new PredictionHistoryPager.Listener() {
+                    @Override
+                    public void onPageLoaded(List<DocumentSnapshot> page, boolean hasMore) {
+                        progressBar.setVisibility(View.GONE);
+                        adapter.append(page);
+                    }
+
+                    @Override
+                    public void onLatestChanged(List<DocumentChange> changes) {
+                        for (DocumentChange change : changes) {
+                            if (change.getType() == DocumentChange.Type.ADDED) {
+                                adapter.insertLatest(change.getDocument(), change.getNewIndex());
+                            } else if (change.getType() == DocumentChange.Type.MODIFIED) {
+                                adapter.update(change.getDocument());
+                            }
+                            // REMOVED only means the entry slid out of the newest page
+                        }
+                    }
+
+                    @Override
+                    public void onGapLoaded(String afterId, List<DocumentSnapshot> docs) {
+                        adapter.insertAfter(afterId, docs);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        progressBar.setVisibility(View.GONE);
+                        Toast.makeText(PredictionHistoryActivity.this, "Failed to load history", Toast.LENGTH_SHORT).show();
+                    }
+                });
+
+        historyList.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0 && recyclerView.getAdapter() == adapter && layoutManager.findLastVisibleItemPosition() >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    pager.loadNextPage();
+                }
+            }
+        });
+
+        symbolFilter = findViewById(R.id.symbolFilter);
+        lastMonthOnly = findViewById(R.id.lastMonthOnly);
+        symbolFilter.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                applyFilter();
+            }
+        });
+        lastMonthOnly.setOnCheckedChangeListener((button, checked) -> applyFilter());
+
+        progressBar.setVisibility(View.VISIBLE);
+        pager.start();
+    }
+
+    // ⚡ A symbol's history comes from the local (symbol, timestamp) index; clearing the filter
+    // goes back to the paged Firestore list, which kept listening meanwhile
+    private void applyFilter() {
+        String symbol = normalizeSymbol(symbolFilter.getText().toString());
+        int generation = ++filterGeneration;
+        if (symbol.isEmpty()) {
+            historyList.setAdapter(adapter);
+            return;
+        }
+
+        PredictionRepository.Callback<List<PredictionEntity>> show = rows -> {
+            if (generation != filterGeneration || isDestroyed()) return;
+            filteredAdapter.replaceAll(rows);
+            if (historyList.getAdapter() != filteredAdapter) historyList.setAdapter(filteredAdapter);
+        };
+        PredictionRepository repository = PredictionRepository.get(this);
+        if (lastMonthOnly.isChecked()) {
+            long now = System.currentTimeMillis();
+            repository.forSymbolBetween(uid, symbol, now - FILTER_WINDOW_MS, now, show);
+        } else {
+            repository.recentForSymbol(uid, symbol, FILTER_LIMIT, show);
+        }
+    }
+
+    /** "tcs" → "TCS.NS": predictions are stored under the backend's NSE symbols. */
+    static String normalizeSymbol(String input) {
+        String symbol = input.trim().toUpperCase(Locale.ROOT);
+        if (symbol.isEmpty() || symbol.contains(".")) return symbol;
+        return symbol + ".NS";
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (pager != null) pager.stop();
+    }
+}
@@ -0,0 +1,128 @@
+package com.trader.stockadvisorai;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * History rows keyed by document ID, so realtime deltas update rows in place. The same adapter
+ * shows local Room rows for the symbol filter through {@link #replaceAll}.
+ */
+public class PredictionHistoryAdapter extends RecyclerView.Adapter<PredictionHistoryAdapter.ViewHolder> {
+
+    private final List<String> ids = new ArrayList<>();
+    private final Map<String, String> texts = new HashMap<>();
+
+    public void append(List<DocumentSnapshot> docs) {
+        int start = ids.size();
+        int added = 0;
+        for (DocumentSnapshot doc : docs) {
+            if (texts.put(doc.getId(), format(doc)) == null) {
+                ids.add(doc.getId());
+                added++;
+            }
+        }
+        notifyItemRangeInserted(start, added);
+    }
+
+    /**
+     * A realtime addition to the newest page. The list starts with that page, so the change's
+     * {@code newIndex} is also its position here.
+     */
+    public void insertLatest(DocumentSnapshot doc, int newIndex) {
+        if (texts.put(doc.getId(), format(doc)) != null) {
+            update(doc);
+            return;
+        }
+        int position = Math.min(newIndex, ids.size());
+        ids.add(position, doc.getId());
+        notifyItemInserted(position);
+    }
+
+    /** Entries older than {@code afterId} that were skipped when a burst overflowed the newest page. */
+    public void insertAfter(String afterId, List<DocumentSnapshot> docs) {
+        int start = ids.indexOf(afterId) + 1;
+        if (start == 0) return;
+        int position = start;
+        for (DocumentSnapshot doc : docs) {
+            if (texts.put(doc.getId(), format(doc)) == null) {
+                ids.add(position++, doc.getId());
+            }
+        }
+        notifyItemRangeInserted(start, position - start);
+    }
+
+    public void update(DocumentSnapshot doc) {
+        int position = ids.indexOf(doc.getId());
+        if (position < 0) return;
+        texts.put(doc.getId(), format(doc));
+        notifyItemChanged(position);
+    }
+
+    /** Shows exactly {@code rows} (local entries, newest first), replacing whatever was shown. */
+    public void replaceAll(List<PredictionEntity> rows) {
+        ids.clear();
+        texts.clear();
+        for (PredictionEntity row : rows) {
+            // Rows recorded before schema version 2 have no docId
+            String id = row.docId != null ? row.docId : "local_" + row.id;
+            ids.add(id);
+            texts.put(id, format(row.symbol, row.currentPrice, row.predictedPrice, row.advice));
+        }
+        notifyDataSetChanged();
+    }
+
+    private static String format(DocumentSnapshot doc) {
+        return format(doc.getString("symbol"), doc.getDouble("current_price"),
+                doc.getDouble("predicted_price"), doc.getString("advice"));
+    }
+
+    private static String format(String symbol, Double price, Double predicted, String advice) {
+        StringBuilder history = new StringBuilder();
+        history.append("📊 ").append(symbol);
+        history.append("\nCurrent: ₹").append(price);
+        if (predicted != null)
+            history.append("\nPredicted: ₹").append(predicted);
+        if (advice != null)
+            history.append("\nAdvice: ").append(advice);
+        return history.toString();
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_prediction_history, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        holder.info.setText(texts.get(ids.get(position)));
+    }
+
+    @Override
+    public int getItemCount() {
+        return ids.size();
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView info;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            info = itemView.findViewById(R.id.historyInfo);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.trader.stockadvisorai;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+
+import java.util.List;
+
+/**
+ * Pages through the signed-in user's {@code prediction_history}, newest first. Only the newest
+ * page has a realtime listener, so new predictions arrive as deltas; older pages are plain
+ * {@code startAfter} reads driven by scrolling. When more than a page of predictions lands at
+ * once, the ones that never made it into the newest page are read in between.
+ *
+ * <p>Needs a composite index on {@code uid} (ascending) and {@code timestamp} (descending).
+ */
+public class PredictionHistoryPager {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    private static final String TAG = "HistoryPager";
+
+    public interface Listener {
+        void onPageLoaded(List<DocumentSnapshot> page, boolean hasMore);
+
+        /** Changes to the newest page after the first snapshot. */
+        void onLatestChanged(List<DocumentChange> changes);
+
+        /** Entries that belong right below {@code afterId}, oldest page last. */
+        void onGapLoaded(String afterId, List<DocumentSnapshot> docs);
+
+        void onError(Exception e);
+    }
+
+    private final Query query;
+    private final int pageSize;
+    private final Listener listener;
+
+    @Nullable private ListenerRegistration latestRegistration;
+    @Nullable private DocumentSnapshot cursor;
+    // Head of the newest page as last delivered; a later page that no longer contains it left a gap
+    @Nullable private DocumentSnapshot newest;
+    private boolean firstPageDelivered;
+    private boolean loading;
+    private boolean hasMore = true;
+
+    public PredictionHistoryPager(FirebaseFirestore db, String uid, int pageSize, Listener listener) {
+        this.query = db.collection(PredictionHistoryWriter.COLLECTION)
+                .whereEqualTo("uid", uid)
+                .orderBy("timestamp", Query.Direction.DESCENDING);
+        this.pageSize = pageSize;
+        this.listener = listener;
+    }
+
+    public void start() {
+        if (latestRegistration != null) return;
+        loading = true;
+        latestRegistration = query.limit(pageSize).addSnapshotListener((snapshot, e) -> {
+            if (e != null) {
+                Log.e(TAG, "History listener failed", e);
+                loading = false;
+                listener.onError(e);
+                return;
+            }
+            if (snapshot == null) return;
+
+            List<DocumentSnapshot> docs = snapshot.getDocuments();
+            if (!firstPageDelivered) {
+                firstPageDelivered = true;
+                loading = false;
+                if (!docs.isEmpty()) cursor = docs.get(docs.size() - 1);
+                hasMore = docs.size() == pageSize;
+                listener.onPageLoaded(docs, hasMore);
+            } else if (!snapshot.getDocumentChanges().isEmpty()) {
+                listener.onLatestChanged(snapshot.getDocumentChanges());
+                if (cursor == null && !docs.isEmpty()) {
+                    // History was empty until now; older pages start below this one
+                    cursor = docs.get(docs.size() - 1);
+                    hasMore = docs.size() == pageSize;
+                } else if (newest != null && docs.size() == pageSize && !containsId(docs, newest.getId())) {
+                    loadGap(docs.get(docs.size() - 1), newest);
+                }
+            }
+            if (!docs.isEmpty()) newest = docs.get(0);
+        });
+    }
+
+    private static boolean containsId(List<DocumentSnapshot> docs, String id) {
+        for (DocumentSnapshot doc : docs) {
+            if (doc.getId().equals(id)) return true;
+        }
+        return false;
+    }
+
+    // Everything strictly between the new page's last entry and the old head, a page at a time
+    private void loadGap(DocumentSnapshot after, DocumentSnapshot before) {
+        query.startAfter(after).endBefore(before).limit(pageSize).get()
+                .addOnSuccessListener(snapshot -> {
+                    List<DocumentSnapshot> docs = snapshot.getDocuments();
+                    if (docs.isEmpty() || latestRegistration == null) return;
+                    listener.onGapLoaded(after.getId(), docs);
+                    if (docs.size() == pageSize) loadGap(docs.get(docs.size() - 1), before);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to load new history entries", e);
+                    listener.onError(e);
+                });
+    }
+
+    public void loadNextPage() {
+        if (loading || !hasMore || cursor == null) return;
+        loading = true;
+        query.startAfter(cursor).limit(pageSize).get()
+                .addOnSuccessListener(snapshot -> {
+                    loading = false;
+                    List<DocumentSnapshot> docs = snapshot.getDocuments();
+                    if (!docs.isEmpty()) cursor = docs.get(docs.size() - 1);
+                    hasMore = docs.size() == pageSize;
+                    listener.onPageLoaded(docs, hasMore);
+                })
+                .addOnFailureListener(e -> {
+                    loading = false;
+                    Log.e(TAG, "Failed to load history page", e);
+                    listener.onError(e);
+                });
+    }
+
+    public void stop() {
+        if (latestRegistration != null) {
+            latestRegistration.remove();
+            latestRegistration = null;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.trader.stockadvisorai;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes prediction history entries as chunked {@link WriteBatch} commits instead of one
+ * {@code add()} per stock. Failed chunks are retried with a growing delay. Entries with a
+ * document ID are upserts, so a retried or replayed batch never duplicates history.
+ */
+public class PredictionHistoryWriter {
+
+    public static final String COLLECTION = "prediction_history";
+
+    /** Firestore rejects batches with more than 500 writes. */
+    public static final int MAX_BATCH_SIZE = 500;
+
+    private static final String TAG = "FIRESTORE";
+    static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 1000;
+
+    public interface Listener {
+        void onBatchCommitted(int batchIndex, int size);
+
+        void onBatchFailed(int batchIndex, int size, Exception e);
+    }
+
+    /** Commits one chunk as a single batch; {@code docIds} parallels {@code chunk}. */
+    interface BatchCommitter {
+        Task<Void> commit(List<String> docIds, List<Map<String, Object>> chunk);
+    }
+
+    private final BatchCommitter committer;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    public PredictionHistoryWriter(FirebaseFirestore db) {
+        this((docIds, chunk) -> {
+            CollectionReference history = db.collection(COLLECTION);
+            WriteBatch batch = db.batch();
+            for (int i = 0; i < chunk.size(); i++) {
+                String docId = docIds.get(i);
+                batch.set(docId != null ? history.document(docId) : history.document(), chunk.get(i));
+            }
+            return batch.commit();
+        });
+    }
+
+    PredictionHistoryWriter(BatchCommitter committer) {
+        this.committer = committer;
+    }
+
+    /** {@code docIds} parallels {@code entries}; a null ID gets a generated one. */
+    public void write(List<String> docIds, List<Map<String, Object>> entries, @Nullable Listener listener) {
+        int batchIndex = 0;
+        for (int start = 0; start < entries.size(); start += MAX_BATCH_SIZE) {
+            int end = Math.min(start + MAX_BATCH_SIZE, entries.size());
+            commit(batchIndex++, docIds.subList(start, end), entries.subList(start, end), 1, listener);
+        }
+    }
+
+    private void commit(int batchIndex, List<String> docIds, List<Map<String, Object>> chunk, int attempt,
+                        @Nullable Listener listener) {
+        committer.commit(docIds, chunk)
+                .addOnSuccessListener(unused -> {
+                    Log.d(TAG, "Saved batch " + batchIndex + " (" + chunk.size() + " entries)");
+                    if (listener != null) listener.onBatchCommitted(batchIndex, chunk.size());
+                })
+                .addOnFailureListener(e -> {
+                    if (attempt < MAX_ATTEMPTS) {
+                        Log.w(TAG, "Batch " + batchIndex + " failed, retrying (attempt " + attempt + ")", e);
+                        handler.postDelayed(() -> commit(batchIndex, docIds, chunk, attempt + 1, listener),
+                                RETRY_DELAY_MS << (attempt - 1));
+                    } else {
+                        Log.e(TAG, "Failed to save batch " + batchIndex, e);
+                        if (listener != null) listener.onBatchFailed(batchIndex, chunk.size(), e);
+                    }
+                });
+    }
+}
@@ -0,0 +1,154 @@
+package com.trader.stockadvisorai;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local-first store for prediction history. Entries land in the local Room database first
+ * and are pushed to Firestore {@code prediction_history} in the background; per-symbol and
+ * time-window reads (the history screen's symbol filter) are answered from the local
+ * (symbol, timestamp) index without a network round trip.
+ */
+public class PredictionRepository {
+
+    private static final String TAG = "PredictionRepository";
+
+    /** Synced rows older than this, or beyond MAX_ROWS, are pruned from the device. */
+    private static final long RETENTION_MS = TimeUnit.DAYS.toMillis(180);
+    private static final int MAX_ROWS = 20_000;
+    private static final int SYNC_CHUNK = 2_000;
+
+    private static volatile PredictionRepository instance;
+
+    public interface Callback<T> {
+        void onResult(T result);
+    }
+
+    private final PredictionDao dao;
+    private final PredictionHistoryWriter writer;
+    private final ExecutorService io = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicBoolean syncing = new AtomicBoolean();
+
+    public static PredictionRepository get(Context context) {
+        if (instance == null) {
+            synchronized (PredictionRepository.class) {
+                if (instance == null) {
+                    instance = new PredictionRepository(
+                            PredictionDatabase.get(context).predictionDao(),
+                            new PredictionHistoryWriter(FirebaseFirestore.getInstance()));
+                    instance.prune();
+                    instance.sync();
+                }
+            }
+        }
+        return instance;
+    }
+
+    PredictionRepository(PredictionDao dao, PredictionHistoryWriter writer) {
+        this.dao = dao;
+        this.writer = writer;
+    }
+
+    /** Recording the same {@code responseId} again is a no-op, so replays never duplicate history. */
+    public void record(String responseId, List<StockResult> stocks, String uid, long timestamp) {
+        List<PredictionEntity> entries = new ArrayList<>(stocks.size());
+        for (StockResult stock : stocks) {
+            entries.add(PredictionEntity.from(responseId, stock, uid, timestamp));
+        }
+        io.execute(() -> dao.insertAll(entries));
+        sync();
+    }
+
+    /** e.g. the last 30 predictions for TCS.NS, newest first; the callback runs on the main thread. */
+    public void recentForSymbol(String uid, String symbol, int limit, Callback<List<PredictionEntity>> callback) {
+        io.execute(() -> {
+            List<PredictionEntity> rows = dao.recentForSymbol(uid, symbol, limit);
+            mainHandler.post(() -> callback.onResult(rows));
+        });
+    }
+
+    /** Predictions for {@code symbol} recorded between {@code from} and {@code to} (inclusive), newest first. */
+    public void forSymbolBetween(String uid, String symbol, long from, long to,
+                                 Callback<List<PredictionEntity>> callback) {
+        io.execute(() -> {
+            List<PredictionEntity> rows = dao.forSymbolBetween(uid, symbol, from, to);
+            mainHandler.post(() -> callback.onResult(rows));
+        });
+    }
+
+    /** Pushes unsynced rows to Firestore; only one sync pass runs at a time. */
+    public void sync() {
+        io.execute(() -> {
+            if (!syncing.compareAndSet(false, true)) return;
+
+            List<PredictionEntity> pending = dao.pending(SYNC_CHUNK);
+            if (pending.isEmpty()) {
+                syncing.set(false);
+                return;
+            }
+
+            List<String> docIds = new ArrayList<>(pending.size());
+            List<Map<String, Object>> entries = new ArrayList<>(pending.size());
+            for (PredictionEntity entity : pending) {
+                docIds.add(entity.docId);
+                entries.add(entity.toStockResult().toHistoryEntry(entity.uid, entity.timestamp));
+            }
+
+            int batches = (pending.size() + PredictionHistoryWriter.MAX_BATCH_SIZE - 1)
+                    / PredictionHistoryWriter.MAX_BATCH_SIZE;
+            AtomicInteger remaining = new AtomicInteger(batches);
+            AtomicBoolean failed = new AtomicBoolean();
+            mainHandler.post(() -> writer.write(docIds, entries, new PredictionHistoryWriter.Listener() {
+                @Override
+                public void onBatchCommitted(int batchIndex, int size) {
+                    int start = batchIndex * PredictionHistoryWriter.MAX_BATCH_SIZE;
+                    List<Long> ids = new ArrayList<>(size);
+                    for (int i = start; i < start + size; i++) {
+                        ids.add(pending.get(i).id);
+                    }
+                    io.execute(() -> dao.markSynced(ids));
+                    finishBatch();
+                }
+
+                @Override
+                public void onBatchFailed(int batchIndex, int size, Exception e) {
+                    failed.set(true);
+                    finishBatch();
+                }
+
+                private void finishBatch() {
+                    if (remaining.decrementAndGet() > 0) return;
+                    io.execute(() -> {
+                        syncing.set(false);
+                        // More rows may have been recorded while this pass was in flight
+                        if (!failed.get()) sync();
+                    });
+                }
+            }));
+        });
+    }
+
+    public void prune() {
+        io.execute(() -> {
+            int expired = dao.deleteSyncedBefore(System.currentTimeMillis() - RETENTION_MS);
+            int trimmed = dao.trimSyncedTo(MAX_ROWS);
+            if (expired + trimmed > 0) {
+                Log.d(TAG, "Pruned " + (expired + trimmed) + " local predictions");
+            }
+        });
+    }
+}
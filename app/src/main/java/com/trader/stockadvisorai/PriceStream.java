@@ -0,0 +1,185 @@
+package com.trader.stockadvisorai;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import okhttp3.Call;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.BufferedSource;
+
+/**
+ * Subscribes to {@code /prices/stream} (Server-Sent Events) for a set of symbols. Each event is
+ * {@code {"symbol": ..., "price": ...}}. Dropped connections are reopened with the same symbols
+ * and the last event ID after an exponential backoff with jitter; a successful event resets it.
+ * The stream is read on its own thread, and listener calls arrive on that thread.
+ */
+public class PriceStream {
+
+    public interface Listener {
+        void onTick(String symbol, double price);
+
+        default void onConnectionChanged(boolean connected) {}
+    }
+
+    static final long MIN_BACKOFF_MS = 500;
+    static final long MAX_BACKOFF_MS = 30_000;
+
+    private final OkHttpClient client;
+    private final HttpUrl streamUrl;
+    private final Listener listener;
+
+    private final Object lock = new Object();
+    private List<String> symbols = new ArrayList<>();
+    private volatile Thread thread;
+    private Call call;
+    private volatile boolean running;
+    private volatile boolean resubscribe;
+    private volatile String lastEventId;
+    private long retryMs = MIN_BACKOFF_MS;
+
+    public PriceStream(OkHttpClient client, HttpUrl streamUrl, Listener listener) {
+        this.client = client;
+        this.streamUrl = streamUrl;
+        this.listener = listener;
+    }
+
+    /** Starts streaming, or resubscribes with the new symbols if already running. */
+    public void start(Collection<String> newSymbols) {
+        synchronized (lock) {
+            symbols = new ArrayList<>(newSymbols);
+            if (running) {
+                // Reconnect right away so the server sees the new subscription
+                resubscribe = true;
+                if (call != null) call.cancel();
+                return;
+            }
+            running = true;
+            thread = new Thread(this::loop, "price-stream");
+            thread.start();
+        }
+    }
+
+    public void stop() {
+        synchronized (lock) {
+            running = false;
+            if (call != null) call.cancel();
+            if (thread != null) thread.interrupt();
+            thread = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void loop() {
+        long backoffMs = MIN_BACKOFF_MS;
+        // A stop() followed by start() hands over to a new thread; this one just exits
+        while (running && thread == Thread.currentThread()) {
+            boolean receivedEvent = false;
+            try {
+                receivedEvent = readStream();
+            } catch (IOException ignored) {
+                // Dropped, refused or cancelled; decide below whether to reconnect
+            }
+            listener.onConnectionChanged(false);
+            if (!running || thread != Thread.currentThread()) break;
+            if (resubscribe) {
+                resubscribe = false;
+                continue;
+            }
+
+            backoffMs = receivedEvent ? Math.max(retryMs, MIN_BACKOFF_MS) : Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMs / 2, backoffMs + 1));
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    /** Returns true if at least one event arrived before the stream ended. */
+    private boolean readStream() throws IOException {
+        Call current;
+        synchronized (lock) {
+            if (!running) return false;
+            Request.Builder request = new Request.Builder()
+                    .url(streamUrl.newBuilder()
+                            .addQueryParameter("symbols", String.join(",", symbols))
+                            .build())
+                    .header("Accept", "text/event-stream");
+            if (lastEventId != null) request.header("Last-Event-ID", lastEventId);
+            call = current = client.newCall(request.build());
+        }
+
+        boolean receivedEvent = false;
+        try (Response response = current.execute()) {
+            if (!response.isSuccessful() || response.body() == null) {
+                throw new IOException("Price stream HTTP " + response.code());
+            }
+            listener.onConnectionChanged(true);
+
+            BufferedSource source = response.body().source();
+            StringBuilder data = new StringBuilder();
+            String eventId = null;
+            String line;
+            while ((line = source.readUtf8Line()) != null) {
+                if (line.isEmpty()) {
+                    // Blank line dispatches the event
+                    if (data.length() > 0) {
+                        if (eventId != null) lastEventId = eventId;
+                        dispatch(data.toString());
+                        receivedEvent = true;
+                    }
+                    data.setLength(0);
+                    eventId = null;
+                } else if (line.startsWith(":")) {
+                    // Comment / heartbeat
+                } else if (line.startsWith("data:")) {
+                    if (data.length() > 0) data.append('\n');
+                    data.append(fieldValue(line, 5));
+                } else if (line.startsWith("id:")) {
+                    eventId = fieldValue(line, 3);
+                } else if (line.startsWith("retry:")) {
+                    try {
+                        retryMs = Long.parseLong(fieldValue(line, 6));
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+            }
+        }
+        return receivedEvent;
+    }
+
+    private static String fieldValue(String line, int nameLength) {
+        int start = nameLength < line.length() && line.charAt(nameLength) == ' ' ? nameLength + 1 : nameLength;
+        return line.substring(start);
+    }
+
+    private void dispatch(String data) {
+        String symbol = null;
+        double price = Double.NaN;
+        try (JsonReader reader = new JsonReader(new StringReader(data))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("symbol".equals(name)) symbol = reader.nextString();
+                else if ("price".equals(name)) price = reader.nextDouble();
+                else reader.skipValue();
+            }
+            reader.endObject();
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            return; // Skip malformed events rather than dropping the stream
+        }
+        if (symbol != null && !Double.isNaN(price)) listener.onTick(symbol, price);
+    }
+}
@@ -0,0 +1,70 @@
+package com.trader.stockadvisorai;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collects ticks from any thread and hands the latest price per symbol to the UI at most once
+ * per frame. A burst of ticks for one symbol costs a single map write each.
+ */
+public class PriceTickCoalescer implements PriceStream.Listener, Choreographer.FrameCallback {
+
+    public interface Sink {
+        void onPrices(Map<String, Double> latest);
+
+        default void onConnectionChanged(boolean connected) {}
+    }
+
+    private final Sink sink;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicBoolean frameScheduled = new AtomicBoolean();
+    private final Object lock = new Object();
+    private HashMap<String, Double> pending = new HashMap<>();
+    private volatile boolean released;
+
+    public PriceTickCoalescer(Sink sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void onTick(String symbol, double price) {
+        synchronized (lock) {
+            pending.put(symbol, price);
+        }
+        if (frameScheduled.compareAndSet(false, true)) {
+            // Choreographer is per-looper, so schedule from the main thread
+            mainHandler.post(() -> Choreographer.getInstance().postFrameCallback(this));
+        }
+    }
+
+    @Override
+    public void onConnectionChanged(boolean connected) {
+        mainHandler.post(() -> {
+            if (!released) sink.onConnectionChanged(connected);
+        });
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        HashMap<String, Double> batch;
+        synchronized (lock) {
+            batch = pending;
+            pending = new HashMap<>();
+        }
+        frameScheduled.set(false);
+        if (!released && !batch.isEmpty()) sink.onPrices(batch);
+    }
+
+    /** Drops pending and future ticks; call from the main thread when the screen goes away. */
+    public void release() {
+        released = true;
+        Choreographer.getInstance().removeFrameCallback(this);
+        mainHandler.removeCallbacksAndMessages(null);
+        frameScheduled.set(false);
+    }
+}
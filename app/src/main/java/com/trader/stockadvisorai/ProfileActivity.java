@@ -1,20 +1,20 @@
 package com.trader.stockadvisorai;
 
+import android.content.Intent;
 import android.os.Bundle;
-import android.util.Log;
+import android.text.TextUtils;
+import android.view.View;
+import android.widget.Button;
 import android.widget.TextView;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
 
 public class ProfileActivity extends AppCompatActivity {
 
     private TextView emailText, nameText;
     private FirebaseAuth mAuth;
-    private FirebaseFirestore db;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -24,39 +24,39 @@ public class ProfileActivity extends AppCompatActivity {
         emailText = findViewById(R.id.emailTextView);
         nameText = findViewById(R.id.nameTextView);
 
+        // 📶 NetworkStatsActivity lives in src/debug, so release builds have no such screen
+        if (BuildConfig.DEBUG) {
+            Button statsButton = findViewById(R.id.networkStatsButton);
+            statsButton.setVisibility(View.VISIBLE);
+            statsButton.setOnClickListener(v -> startActivity(
+                    new Intent().setClassName(this, getPackageName() + ".NetworkStatsActivity")));
+        }
+
         mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
 
         FirebaseUser user = mAuth.getCurrentUser();
 
         if (user != null) {
-            // Set email
+            // Auth already knows these, so show them before any profile lookup
             emailText.setText("📧 " + user.getEmail());
+            nameText.setText("👤 " + fallbackName(user));
 
-            // Try getting display name from Firebase Auth
-            if (user.getDisplayName() != null) {
-                nameText.setText("👤 " + user.getDisplayName());
-            } else {
-                // Fallback: fetch name from Firestore using UID
-                db.collection("users").document(user.getUid())
-                        .get()
-                        .addOnSuccessListener(documentSnapshot -> {
-                            if (documentSnapshot.exists()) {
-                                String name = documentSnapshot.getString("name");
-                                nameText.setText("👤 " + (name != null ? name : "Padmini"));
-                            } else {
-                                nameText.setText("👤 Padmini");
-                            }
-                        })
-                        .addOnFailureListener(e -> {
-                            Log.e("ProfileActivity", "Error fetching name", e);
-                            nameText.setText("👤 Padmini");
-                        });
-            }
+            // Cached profile shows instantly; a stale one is refreshed in the background
+            ProfileRepository.get(this).load(user.getUid(), profile -> {
+                if (isDestroyed()) return;
+                if (!TextUtils.isEmpty(profile.name)) nameText.setText("👤 " + profile.name);
+                if (!TextUtils.isEmpty(profile.email)) emailText.setText("📧 " + profile.email);
+            });
 
         } else {
             emailText.setText("Not logged in");
             nameText.setText("");
         }
     }
+
+    private static String fallbackName(FirebaseUser user) {
+        if (!TextUtils.isEmpty(user.getDisplayName())) return user.getDisplayName();
+        String email = user.getEmail();
+        return email != null && email.contains("@") ? email.substring(0, email.indexOf('@')) : "";
+    }
 }
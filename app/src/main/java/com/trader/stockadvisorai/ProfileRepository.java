@@ -0,0 +1,139 @@
+package com.trader.stockadvisorai;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single source of truth for user profiles. Firestore {@code users/{uid}} is the only backing
+ * store; a memory map and SharedPreferences sit in front of it, so screens get the last known
+ * profile immediately and a background refresh runs at most once per {@link #REFRESH_INTERVAL_MS}.
+ */
+public class ProfileRepository {
+
+    public interface Listener {
+        /** Called on the main thread with the cached profile first, then again if a refresh changed it. */
+        void onProfile(User user);
+    }
+
+    static final String COLLECTION = "users";
+    static final long REFRESH_INTERVAL_MS = 60 * 60 * 1000L;
+
+    private static final String TAG = "ProfileRepository";
+    private static final String PREFS = "profile_cache";
+
+    private static volatile ProfileRepository instance;
+
+    private final SharedPreferences prefs;
+    private final FirebaseFirestore db;
+    private final Map<String, User> memory = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastRefresh = new ConcurrentHashMap<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public static ProfileRepository get(Context context) {
+        if (instance == null) {
+            synchronized (ProfileRepository.class) {
+                if (instance == null) {
+                    instance = new ProfileRepository(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private ProfileRepository(Context context) {
+        prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        db = FirebaseFirestore.getInstance();
+    }
+
+    /** Last known profile for {@code uid} from memory or disk, without touching the network. */
+    @Nullable
+    public User cached(String uid) {
+        User user = memory.get(uid);
+        if (user != null) return user;
+
+        String name = prefs.getString(uid + ".name", null);
+        String email = prefs.getString(uid + ".email", null);
+        if (name == null && email == null) return null;
+        user = new User(name, email);
+        memory.put(uid, user);
+        lastRefresh.putIfAbsent(uid, prefs.getLong(uid + ".fetchedAt", 0));
+        return user;
+    }
+
+    /** Delivers the cached profile right away and refreshes it from Firestore when stale. */
+    public void load(String uid, Listener listener) {
+        User cached = cached(uid);
+        if (cached != null) listener.onProfile(cached);
+
+        Long refreshedAt = lastRefresh.get(uid);
+        if (cached != null && refreshedAt != null
+                && System.currentTimeMillis() - refreshedAt < REFRESH_INTERVAL_MS) {
+            return;
+        }
+        refresh(uid, cached, listener);
+    }
+
+    private void refresh(String uid, @Nullable User cached, Listener listener) {
+        // Mark first so concurrent opens don't start duplicate reads
+        lastRefresh.put(uid, System.currentTimeMillis());
+        db.collection(COLLECTION).document(uid).get()
+                .addOnSuccessListener(snapshot -> {
+                    User fresh = fromSnapshot(snapshot);
+                    if (fresh == null) return;
+                    store(uid, fresh);
+                    if (!same(cached, fresh)) mainHandler.post(() -> listener.onProfile(fresh));
+                })
+                .addOnFailureListener(e -> {
+                    Log.w(TAG, "Profile refresh failed", e);
+                    lastRefresh.remove(uid);
+                });
+    }
+
+    /** Writes the profile to Firestore and the local caches. */
+    public Task<Void> save(String uid, User user) {
+        store(uid, user);
+        Map<String, Object> doc = new HashMap<>(2);
+        doc.put("name", user.name);
+        doc.put("email", user.email);
+        return db.collection(COLLECTION).document(uid).set(doc, SetOptions.merge());
+    }
+
+    private void store(String uid, User user) {
+        long now = System.currentTimeMillis();
+        memory.put(uid, user);
+        lastRefresh.put(uid, now);
+        prefs.edit()
+                .putString(uid + ".name", user.name)
+                .putString(uid + ".email", user.email)
+                .putLong(uid + ".fetchedAt", now)
+                .apply();
+    }
+
+    @Nullable
+    private static User fromSnapshot(DocumentSnapshot snapshot) {
+        if (!snapshot.exists()) return null;
+        return new User(snapshot.getString("name"), snapshot.getString("email"));
+    }
+
+    private static boolean same(@Nullable User a, User b) {
+        return a != null && equal(a.name, b.name) && equal(a.email, b.email);
+    }
+
+    private static boolean equal(@Nullable String a, @Nullable String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -7,15 +7,12 @@ import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
 
 public class RegisterActivity extends AppCompatActivity {
 
     private EditText nameEditText, emailEditText, passwordEditText;
     private Button registerBtn;
     private FirebaseAuth firebaseAuth;
-    private DatabaseReference userRef;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -28,7 +25,6 @@ public class RegisterActivity extends AppCompatActivity {
         registerBtn = findViewById(R.id.registerBtn);
 
         firebaseAuth = FirebaseAuth.getInstance();
-        userRef = FirebaseDatabase.getInstance().getReference("Users");
 
         registerBtn.setOnClickListener(v -> registerUser());
     }
@@ -58,7 +54,8 @@ public class RegisterActivity extends AppCompatActivity {
                     if (task.isSuccessful()) {
                         String userId = firebaseAuth.getCurrentUser().getUid();
                         User user = new User(name, email);
-                        userRef.child(userId).setValue(user);
+                        // Firestore users/{uid} is the one profile store, read by ProfileRepository
+                        ProfileRepository.get(this).save(userId, user);
 
                         Toast.makeText(this, "Registered Successfully", Toast.LENGTH_SHORT).show();
                         startActivity(new Intent(RegisterActivity.this, UserTypeActivity.class));
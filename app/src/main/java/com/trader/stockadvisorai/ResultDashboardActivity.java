@@ -1,157 +1,256 @@
 package com.trader.stockadvisorai;
 
+import android.content.Context;
 import android.content.Intent;
-import android.graphics.Color;
 import android.os.Bundle;
-import android.util.Log;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.View;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.Query;
-
-import org.json.JSONArray;
-import org.json.JSONObject;
-
-import java.util.HashMap;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.google.android.material.bottomnavigation.BottomNavigationView;
+import com.google.android.material.materialswitch.MaterialSwitch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 public class ResultDashboardActivity extends AppCompatActivity {
 
-    private LinearLayout resultLayout;
-    private FirebaseFirestore db;
+    /** ID of a result in {@link PortfolioStore}; the rows themselves never travel in the Intent. */
+    public static final String EXTRA_RESULT_ID = "result_id";
+
+    // Same order as PortfolioIndex.Sort
+    private static final String[] SORT_LABELS = {"Server order", "Symbol", "Price", "Upside", "Invested", "Advice"};
+    private static final String ALL_ADVICE = "All advice";
+
+    public static Intent intentFor(Context context, String resultId) {
+        return new Intent(context, ResultDashboardActivity.class).putExtra(EXTRA_RESULT_ID, resultId);
+    }
+
+    private ProgressBar progressBar;
+    private String[] shownAdviceLabels;
+    private StockResultAdapter adapter;
+    private ResultDashboardViewModel viewModel;
+    private MaterialSwitch liveSwitch;
+    private PriceTickCoalescer tickCoalescer;
+    private PriceStream priceStream;
+    private Spinner adviceFilterSpinner;
+    private Button sortDirectionButton;
+    private TextView matchCount;
+    private PortfolioSnapshot shown;
+    // Two row-order buffers: the adapter reads one while the next query fills the other
+    private int[][] orderBuffers = {new int[0], new int[0]};
+    private int nextBuffer;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_result_dashboard);
 
-        resultLayout = findViewById(R.id.resultLayout);
-        db = FirebaseFirestore.getInstance();
+        progressBar = findViewById(R.id.progressBar);
+
+        RecyclerView stockList = findViewById(R.id.stockList);
+        stockList.setLayoutManager(new LinearLayoutManager(this));
+        stockList.setHasFixedSize(true);
+        adapter = new StockResultAdapter();
+        stockList.setAdapter(adapter);
+
+        viewModel = new ViewModelProvider(this).get(ResultDashboardViewModel.class);
+
+        // 📡 Ticks are coalesced per frame, applied to the store and only changed rows rebind
+        tickCoalescer = new PriceTickCoalescer(new PriceTickCoalescer.Sink() {
+            @Override
+            public void onPrices(Map<String, Double> latest) {
+                viewModel.updatePrices(latest);
+            }
+
+            @Override
+            public void onConnectionChanged(boolean connected) {
+                liveSwitch.setText(connected ? "📡 Live prices" : "📡 Live prices (reconnecting…)");
+            }
+        });
+        priceStream = BackendClient.get().newPriceStream(tickCoalescer);
+        liveSwitch = findViewById(R.id.liveSwitch);
+        liveSwitch.setOnCheckedChangeListener((button, checked) -> updateLiveStream(shown));
+
+        setUpQueryBar();
+
+        // Survives rotation: the result is loaded and recorded once, then just re-observed
+        viewModel.load(getIntent().getStringExtra(EXTRA_RESULT_ID));
+        viewModel.index().observe(this, index -> {
+            // ⏳ A streamed result keeps the spinner up until its last row is in
+            progressBar.setVisibility(index.snapshot().isStreaming() ? View.VISIBLE : View.GONE);
+            showIndex(index);
+        });
+        viewModel.error().observe(this, message -> {
+            progressBar.setVisibility(View.GONE);
+            showError(message);
+        });
+        if (viewModel.index().getValue() == null) progressBar.setVisibility(View.VISIBLE);
 
-        fetchPredictionData();
         Button goToProfile = findViewById(R.id.goToProfileButton);
         goToProfile.setOnClickListener(v -> {
             Intent intent = new Intent(ResultDashboardActivity.this, ProfileActivity.class);
             startActivity(intent);
         });
 
+        BottomNavigationView bottomNav = findViewById(R.id.bottom_navigation);
+        bottomNav.setSelectedItemId(R.id.nav_dashboard);
+        bottomNav.setOnItemSelectedListener(item -> {
+            if (item.getItemId() == R.id.nav_history) {
+                startActivity(new Intent(this, PredictionHistoryActivity.class));
+            } else if (item.getItemId() == R.id.nav_profile) {
+                startActivity(new Intent(this, ProfileActivity.class));
+            }
+            return false;
+        });
+
 
     }
 
-    private void fetchPredictionData() {
-        String responseData = getIntent().getStringExtra("result");
-
-        if (responseData == null) {
-            showError("No data received");
-            return;
+    private void showIndex(PortfolioIndex index) {
+        PortfolioSnapshot snapshot = index.snapshot();
+        boolean newRows = shown == null || !index.covers(shown);
+        boolean justFinished = !snapshot.isStreaming() && (shown == null || shown.isStreaming());
+        shown = snapshot;
+        adapter.submitSnapshot(snapshot);
+        // Subscribe once the symbol list is final rather than on every streamed batch
+        if (justFinished) updateLiveStream(snapshot);
+        if (newRows) {
+            showAdviceLabels(index.adviceLabels());
+            applyQuery();
+        } else if (viewModel.sort() == PortfolioIndex.Sort.PRICE || viewModel.sort() == PortfolioIndex.Sort.UPSIDE) {
+            // Live prices moved the order we're sorted by
+            applyQuery();
         }
+    }
+
+    private void setUpQueryBar() {
+        EditText searchInput = findViewById(R.id.searchInput);
+        searchInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                viewModel.setSearchPrefix(s.toString().trim());
+                applyQuery();
+            }
+        });
+
+        Spinner sortSpinner = findViewById(R.id.sortSpinner);
+        sortSpinner.setAdapter(spinnerAdapter(SORT_LABELS));
+        sortSpinner.setSelection(viewModel.sort().ordinal());
+        sortSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                viewModel.setSort(PortfolioIndex.Sort.values()[position]);
+                applyQuery();
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {}
+        });
+
+        sortDirectionButton = findViewById(R.id.sortDirectionButton);
+        sortDirectionButton.setText(viewModel.descending() ? "⬇️" : "⬆️");
+        sortDirectionButton.setOnClickListener(v -> {
+            viewModel.setDescending(!viewModel.descending());
+            sortDirectionButton.setText(viewModel.descending() ? "⬇️" : "⬆️");
+            applyQuery();
+        });
 
-        try {
-            JSONObject jsonResponse = new JSONObject(responseData);
-            JSONArray data = jsonResponse.getJSONArray("stocks");
-
-            for (int i = 0; i < data.length(); i++) {
-                JSONObject stock = data.getJSONObject(i);
-
-                String symbol = stock.getString("symbol");
-                double current = stock.getDouble("current_price");
-                int quantity = stock.has("quantity") ? stock.getInt("quantity") : 0;
-                double invested = stock.has("invested") ? stock.getDouble("invested") : 0.0;
-                double yesterday = stock.has("yesterday_close") ? stock.getDouble("yesterday_close") : 0.0;
-                double predicted = stock.has("predicted_price") ? stock.getDouble("predicted_price") : 0.0;
-                String advice = stock.has("advice") ? stock.getString("advice") : "N/A";
-
-                // 📊 Build UI display
-                StringBuilder info = new StringBuilder();
-                info.append("📊 ").append(symbol);
-                info.append("\nCurrent: ₹").append(current);
-                if (quantity > 0) info.append("\nSuggested Quantity: ").append(quantity);
-                if (invested > 0) info.append("\nInvested: ₹").append(invested);
-                if (yesterday > 0) info.append("\nYesterday: ₹").append(yesterday);
-                if (predicted > 0) info.append("\nPredicted: ₹").append(predicted);
-                if (!advice.equals("N/A")) info.append("\nAdvice: ").append(advice);
-
-                TextView tv = new TextView(this);
-                tv.setText(info.toString());
-                tv.setTextSize(16f);
-                tv.setTextColor(Color.WHITE);
-                tv.setBackgroundColor(Color.DKGRAY);
-                tv.setPadding(24, 24, 24, 24);
-
-                LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
-                        LinearLayout.LayoutParams.MATCH_PARENT,
-                        LinearLayout.LayoutParams.WRAP_CONTENT
-                );
-                params.setMargins(0, 0, 0, 24);
-                tv.setLayoutParams(params);
-
-                resultLayout.addView(tv);
-
-
-                saveToFirestore(symbol, current, quantity, invested, yesterday, predicted, advice);
+        matchCount = findViewById(R.id.matchCount);
+        adviceFilterSpinner = findViewById(R.id.adviceFilterSpinner);
+        adviceFilterSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                viewModel.setAdviceFilter(position == 0 ? null : (String) parent.getItemAtPosition(position));
+                applyQuery();
             }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Failed to parse response");
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {}
+        });
+    }
+
+    private void showAdviceLabels(String[] labels) {
+        // Streamed batches rarely bring a new label; keep the spinner as it is when they don't
+        if (Arrays.equals(labels, shownAdviceLabels)) return;
+        shownAdviceLabels = labels;
+        String[] options = new String[labels.length + 1];
+        options[0] = ALL_ADVICE;
+        System.arraycopy(labels, 0, options, 1, labels.length);
+        adviceFilterSpinner.setAdapter(spinnerAdapter(options));
+        for (int i = 1; i < options.length; i++) {
+            if (options[i].equals(viewModel.adviceFilter())) adviceFilterSpinner.setSelection(i);
         }
     }
 
-    private void saveToFirestore(String symbol, double currentPrice, int quantity, double invested,
-                                 double yesterday, double predicted, String advice) {
-        Map<String, Object> entry = new HashMap<>();
-        entry.put("symbol", symbol);
-        entry.put("current_price", currentPrice);
-        entry.put("quantity", quantity);
-        entry.put("invested", invested);
-        entry.put("yesterday_close", yesterday);
-        entry.put("predicted_price", predicted);
-        entry.put("advice", advice);
-        entry.put("timestamp", System.currentTimeMillis());
-
-        db.collection("prediction_history")
-                .add(entry)
-                .addOnSuccessListener(docRef -> Log.d("FIRESTORE", "Saved: " + symbol))
-                .addOnFailureListener(e -> Log.e("FIRESTORE", "Failed to save", e));
+    private ArrayAdapter<String> spinnerAdapter(String[] options) {
+        ArrayAdapter<String> spinnerAdapter = new ArrayAdapter<>(this, R.layout.item_spinner, options);
+        spinnerAdapter.setDropDownViewResource(R.layout.item_spinner);
+        return spinnerAdapter;
     }
 
-    private void showError(String msg) {
-        Toast.makeText(this, msg, Toast.LENGTH_LONG).show();
+    // ⚡ A keystroke or sort change only swaps the visible row order; rows are never rebuilt
+    private void applyQuery() {
+        PortfolioIndex index = viewModel.index().getValue();
+        if (index == null || shown == null) return;
+        int size = index.snapshot().size();
+        if (orderBuffers[0].length < size) orderBuffers = new int[][]{new int[size], new int[size]};
+        int[] order = orderBuffers[nextBuffer];
+        nextBuffer ^= 1;
+
+        int count = index.query(viewModel.searchPrefix(), viewModel.adviceFilter(),
+                viewModel.sort(), viewModel.descending(), order);
+        adapter.showRows(order, count);
+        matchCount.setText(count + " of " + size);
     }
 
-    // 🔄 Optional: Load past history from Firestore
-
-    private void loadPredictionHistory() {
-        db.collection("prediction_history")
-            .orderBy("timestamp", Query.Direction.DESCENDING)
-            .get()
-            .addOnSuccessListener(queryDocumentSnapshots -> {
-                for (DocumentSnapshot doc : queryDocumentSnapshots.getDocuments()) {
-                    String symbol = doc.getString("symbol");
-                    Double price = doc.getDouble("current_price");
-                    String advice = doc.getString("advice");
-                    Double predicted = doc.getDouble("predicted_price");
-
-                    StringBuilder history = new StringBuilder();
-                    history.append("📊 ").append(symbol);
-                    history.append("\nCurrent: ₹").append(price);
-                    if (predicted != null)
-                        history.append("\nPredicted: ₹").append(predicted);
-                    if (advice != null)
-                        history.append("\nAdvice: ").append(advice);
-
-                    TextView tv = new TextView(this);
-                    tv.setText(history.toString());
-                    tv.setTextSize(14f);
-                    tv.setTextColor(Color.LTGRAY);
-                    tv.setPadding(16, 16, 16, 16);
-                    tv.setBackgroundColor(Color.GRAY);
-                    resultLayout.addView(tv);
-                }
-            });
+    @Override
+    protected void onStart() {
+        super.onStart();
+        updateLiveStream(shown);
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // No ticks while the screen isn't visible; onStart resubscribes
+        priceStream.stop();
+    }
+
+    private void updateLiveStream(PortfolioSnapshot snapshot) {
+        boolean visible = getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.STARTED);
+        if (!liveSwitch.isChecked() || !visible || snapshot == null || snapshot.size() == 0) {
+            priceStream.stop();
+            liveSwitch.setText("📡 Live prices");
+            return;
+        }
+        List<String> symbols = new ArrayList<>(snapshot.size());
+        for (int i = 0; i < snapshot.size(); i++) symbols.add(snapshot.symbol(i));
+        priceStream.start(symbols);
+    }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        priceStream.stop();
+        tickCoalescer.release();
+    }
 
+    private void showError(String msg) {
+        Toast.makeText(this, msg, Toast.LENGTH_LONG).show();
     }
 
 }
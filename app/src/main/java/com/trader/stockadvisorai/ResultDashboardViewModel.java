@@ -0,0 +1,179 @@
+package com.trader.stockadvisorai;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Holds one result set from {@link PortfolioStore} across rotations and theme changes, so it is
+ * loaded, rendered and recorded to history once instead of on every onCreate(). The search index
+ * and the current search/sort/filter live here too, so rotating doesn't rebuild or reset them.
+ */
+public class ResultDashboardViewModel extends AndroidViewModel {
+
+    private final PortfolioStore store;
+    private final MutableLiveData<String> error = new MutableLiveData<>();
+    private final ExecutorService loadExecutor = Executors.newSingleThreadExecutor();
+    private String resultId;
+    private final MediatorLiveData<PortfolioIndex> index = new MediatorLiveData<>();
+    private PortfolioSnapshot latest;
+    // Main thread; true while a rebuild for added rows is queued on loadExecutor
+    private boolean rebuilding;
+    private boolean recorded;
+    private String searchPrefix = "";
+    private String adviceFilter;
+    private PortfolioIndex.Sort sort = PortfolioIndex.Sort.SERVER;
+    private boolean descending;
+
+    public ResultDashboardViewModel(@NonNull Application application) {
+        super(application);
+        store = PortfolioStore.get(application);
+    }
+
+    /**
+     * The current rows with their search index. The index is built off the main thread; live
+     * price updates then arrive as the same index carried over to the new snapshot, and rows
+     * added by a streaming result are indexed off the main thread again.
+     */
+    public LiveData<PortfolioIndex> index() {
+        return index;
+    }
+
+    public LiveData<String> error() {
+        return error;
+    }
+
+    /**
+     * Loads, indexes and records result {@code id}; repeated calls for the same ID are ignored.
+     * A result that is still streaming is shown as it grows and recorded once it completes.
+     */
+    public void load(String id) {
+        if (id == null) {
+            error.setValue("No data received");
+            return;
+        }
+        if (id.equals(resultId)) return;
+        resultId = id;
+        index.addSource(store.observe(id), snapshot -> {
+            latest = snapshot;
+            PortfolioIndex current = index.getValue();
+            if (current != null) {
+                if (current.covers(snapshot)) {
+                    index.setValue(current.withSnapshot(snapshot));
+                } else {
+                    rebuild(snapshot);
+                }
+            }
+            recordOnce(snapshot);
+        });
+
+        loadExecutor.execute(() -> {
+            PortfolioSnapshot loaded = store.load(id);
+            if (loaded == null) {
+                error.postValue("This result is no longer available");
+                return;
+            }
+            PortfolioIndex built = PortfolioIndex.build(loaded);
+            ContextCompat.getMainExecutor(getApplication()).execute(() -> {
+                publish(built);
+                recordOnce(loaded);
+            });
+        });
+    }
+
+    // 🌊 Main thread. Chunks that arrive while a rebuild is queued are picked up when it lands,
+    // so a fast stream costs one sort per build rather than one per chunk.
+    private void rebuild(PortfolioSnapshot snapshot) {
+        if (rebuilding) return;
+        rebuilding = true;
+        loadExecutor.execute(() -> {
+            PortfolioIndex built = PortfolioIndex.build(snapshot);
+            ContextCompat.getMainExecutor(getApplication()).execute(() -> {
+                rebuilding = false;
+                publish(built);
+            });
+        });
+    }
+
+    // Main thread. Prices may have moved, or rows arrived, while the index was being built.
+    private void publish(PortfolioIndex built) {
+        if (latest == null || built.covers(latest)) {
+            index.setValue(latest != null ? built.withSnapshot(latest) : built);
+        } else {
+            index.setValue(built);
+            rebuild(latest);
+        }
+    }
+
+    public String searchPrefix() {
+        return searchPrefix;
+    }
+
+    public void setSearchPrefix(String searchPrefix) {
+        this.searchPrefix = searchPrefix;
+    }
+
+    /** Advice label to show, or null for all. */
+    public String adviceFilter() {
+        return adviceFilter;
+    }
+
+    public void setAdviceFilter(String adviceFilter) {
+        this.adviceFilter = adviceFilter;
+    }
+
+    public PortfolioIndex.Sort sort() {
+        return sort;
+    }
+
+    public void setSort(PortfolioIndex.Sort sort) {
+        this.sort = sort;
+    }
+
+    public boolean descending() {
+        return descending;
+    }
+
+    public void setDescending(boolean descending) {
+        this.descending = descending;
+    }
+
+    public void updatePrices(Map<String, Double> prices) {
+        if (resultId != null) store.updatePrices(resultId, prices);
+    }
+
+    // Main thread. History is keyed by the rows' content, not the result ID: a streamed result is
+    // named after its screenshot, and the same screenshot analyzed another day has new rows.
+    // Streaming and truncated results are never recorded.
+    private void recordOnce(PortfolioSnapshot snapshot) {
+        if (recorded || !snapshot.isComplete()) return;
+        recorded = true;
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        String uid = user != null ? user.getUid() : null;
+        long now = System.currentTimeMillis();
+        loadExecutor.execute(() -> {
+            List<StockResult> rows = snapshot.rows();
+            PredictionRepository.get(getApplication()).record(PortfolioSnapshot.idFor(rows), rows, uid, now);
+        });
+    }
+
+    @Override
+    protected void onCleared() {
+        // 🛑 Nobody is left to watch a result that is still streaming
+        if (resultId != null) store.cancel(resultId);
+        loadExecutor.shutdown();
+    }
+}
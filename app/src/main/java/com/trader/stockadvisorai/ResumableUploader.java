@@ -0,0 +1,226 @@
+package com.trader.stockadvisorai;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Client side of the backend's resumable upload protocol:
+ * <pre>
+ * POST /uploads                        -> {"upload_id": "..."}
+ * GET  /uploads/{id}                   -> {"received": n}
+ * PUT  /uploads/{id}  (Upload-Offset)  -> {"received": n}, or 409 with the server's offset
+ * POST /uploads/{id}/analyze           -> {"stocks": [...]}
+ * GET  /results/{sha256}               -> cached {"stocks": [...]}, 304 or 404
+ * </pre>
+ * The upload ID and the last acknowledged offset are persisted through {@link StateStore}, so an
+ * interrupted upload resumes from the last chunk the server confirmed. The server names every
+ * analysis by the SHA-256 of the bytes it received ({@link Analysis#digest}); a caller that kept
+ * that digest can {@link #lookup} a fresh result first and skip the upload entirely.
+ */
+public class ResumableUploader {
+
+    public static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+    /** Response header carrying the server's SHA-256 of the analyzed image. */
+    public static final String CONTENT_HASH_HEADER = "X-Content-SHA256";
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
+    public interface StateStore {
+        String uploadId(String key);
+
+        long offset(String key);
+
+        void save(String key, String uploadId, long offset);
+
+        void clear(String key);
+    }
+
+    /** Server answered with a status that retrying will not fix. */
+    public static class UploadRejectedException extends IOException {
+        public final int code;
+
+        UploadRejectedException(int code, String message) {
+            super(message);
+            this.code = code;
+        }
+    }
+
+    /** Analysis JSON plus the server's digest and ETag for it. */
+    public static class Analysis {
+        public final String json;
+        public final String digest;
+        public final String etag;
+        /** The server confirmed the caller's copy (If-None-Match) is still current; json is null. */
+        public final boolean notModified;
+
+        Analysis(String json, String digest, String etag, boolean notModified) {
+            this.json = json;
+            this.digest = digest;
+            this.etag = etag;
+            this.notModified = notModified;
+        }
+    }
+
+    private final OkHttpClient client;
+    private final HttpUrl baseUrl;
+    private final StateStore store;
+    private final int chunkSize;
+
+    public ResumableUploader(OkHttpClient client, HttpUrl baseUrl, StateStore store, int chunkSize) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.store = store;
+        this.chunkSize = chunkSize;
+    }
+
+    /** Uploads {@code file} (resuming if {@code key} has saved state) and returns the analysis JSON. */
+    public String uploadAndAnalyze(String key, File file) throws IOException {
+        return upload(key, file).json;
+    }
+
+    /** As above, keeping the digest and ETag the server filed the result under for {@link #lookup}. */
+    public Analysis upload(String key, File file) throws IOException {
+        String uploadId = store.uploadId(key);
+        long offset = 0;
+        if (uploadId != null) {
+            Long received = status(uploadId);
+            if (received == null) {
+                uploadId = null;
+            } else {
+                offset = received;
+            }
+        }
+        if (uploadId == null) {
+            uploadId = create();
+            offset = 0;
+        }
+        store.save(key, uploadId, offset);
+
+        long length = file.length();
+        byte[] chunk = new byte[chunkSize];
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            while (offset < length) {
+                int size = (int) Math.min(chunkSize, length - offset);
+                in.seek(offset);
+                in.readFully(chunk, 0, size);
+                offset = put(uploadId, offset, chunk, size);
+                store.save(key, uploadId, offset);
+            }
+        }
+
+        Analysis result = analyze(uploadId);
+        store.clear(key);
+        return result;
+    }
+
+    /**
+     * Asks for a still-fresh result under the server's {@code digest}. Passing the ETag of a local
+     * copy turns a hit into a bodiless 304. Returns null when the server has nothing fresh.
+     */
+    public Analysis lookup(String digest, String etag) throws IOException {
+        Request.Builder request = new Request.Builder().url(url("results/" + digest)).get();
+        if (etag != null) request.header("If-None-Match", etag);
+        try (Response response = client.newCall(request.build()).execute()) {
+            if (response.code() == 404) return null;
+            if (response.code() == 304) return new Analysis(null, digest, response.header("ETag", etag), true);
+            ResponseBody body = response.body();
+            String data = body != null ? body.string() : "";
+            if (!response.isSuccessful()) {
+                throw error(response.code(), "Result lookup failed");
+            }
+            return new Analysis(data, digest, response.header("ETag"), false);
+        }
+    }
+
+    private String create() throws IOException {
+        Request request = new Request.Builder()
+                .url(url("uploads"))
+                .post(RequestBody.create("{}", JSON))
+                .build();
+        try (Response response = client.newCall(request).execute()) {
+            JsonObject body = readJson(response);
+            if (!response.isSuccessful() || !body.has("upload_id")) {
+                throw error(response.code(), "Failed to create upload");
+            }
+            return body.get("upload_id").getAsString();
+        }
+    }
+
+    /** Returns the server's acknowledged offset, or null if it no longer knows the upload. */
+    private Long status(String uploadId) throws IOException {
+        Request request = new Request.Builder().url(url("uploads/" + uploadId)).get().build();
+        try (Response response = client.newCall(request).execute()) {
+            if (response.code() == 404) return null;
+            JsonObject body = readJson(response);
+            if (!response.isSuccessful() || !body.has("received")) {
+                throw error(response.code(), "Failed to read upload status");
+            }
+            return body.get("received").getAsLong();
+        }
+    }
+
+    private long put(String uploadId, long offset, byte[] chunk, int size) throws IOException {
+        Request request = new Request.Builder()
+                .url(url("uploads/" + uploadId))
+                .header("Upload-Offset", Long.toString(offset))
+                .put(RequestBody.create(chunk, OCTET_STREAM, 0, size))
+                .build();
+        try (Response response = client.newCall(request).execute()) {
+            JsonObject body = readJson(response);
+            // 409: our offset was stale (lost ack); the server tells us where to continue
+            if ((response.isSuccessful() || response.code() == 409) && body.has("received")) {
+                return body.get("received").getAsLong();
+            }
+            throw error(response.code(), "Chunk upload failed");
+        }
+    }
+
+    private Analysis analyze(String uploadId) throws IOException {
+        Request request = new Request.Builder()
+                .url(url("uploads/" + uploadId + "/analyze"))
+                .post(RequestBody.create("{}", JSON))
+                .build();
+        try (Response response = client.newCall(request).execute()) {
+            ResponseBody body = response.body();
+            String data = body != null ? body.string() : "";
+            if (!response.isSuccessful()) {
+                throw error(response.code(), "Analysis failed: " + data);
+            }
+            return new Analysis(data, response.header(CONTENT_HASH_HEADER), response.header("ETag"), false);
+        }
+    }
+
+    private HttpUrl url(String path) {
+        return baseUrl.newBuilder().addPathSegments(path).build();
+    }
+
+    private static JsonObject readJson(Response response) throws IOException {
+        ResponseBody body = response.body();
+        if (body == null) return new JsonObject();
+        try {
+            return JsonParser.parseString(body.string()).getAsJsonObject();
+        } catch (RuntimeException e) {
+            return new JsonObject();
+        }
+    }
+
+    private static IOException error(int code, String message) {
+        if (code >= 400 && code < 500 && code != 408 && code != 429) {
+            return new UploadRejectedException(code, message + " (" + code + ")");
+        }
+        return new IOException(message + " (" + code + ")");
+    }
+}
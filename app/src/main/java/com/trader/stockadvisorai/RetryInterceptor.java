@@ -0,0 +1,125 @@
+package com.trader.stockadvisorai;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Retries transient failures (I/O errors including socket timeouts, 429 and 5xx gateway
+ * responses) with exponential backoff and full jitter. Retries stop when the call is cancelled
+ * or interrupted, or the next attempt would start past the call's timeout.
+ *
+ * <p>Only requests that are safe to replay are retried in full: idempotent methods, and POSTs
+ * carrying an {@link #IDEMPOTENCY_KEY}. Other POSTs (e.g. image uploads) are retried only when
+ * the connection itself failed, so their body never reached the server.
+ */
+public class RetryInterceptor implements Interceptor {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    public RetryInterceptor() {
+        this(3, 250, 4000);
+    }
+
+    public RetryInterceptor(int maxAttempts, long baseDelayMs, long maxDelayMs) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        long timeoutNanos = chain.call().timeout().timeoutNanos();
+        long deadline = timeoutNanos > 0 ? System.nanoTime() + timeoutNanos : Long.MAX_VALUE;
+
+        for (int attempt = 1; ; attempt++) {
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                if (!shouldRetry(chain, attempt) || isInterruption(e)) throw e;
+                if (!isReplayable(request) && !isConnectFailure(e)) throw e;
+                if (!backOff(attempt, deadline)) throw e;
+                continue;
+            }
+
+            if (!isTransient(response.code()) || !isReplayable(request) || !shouldRetry(chain, attempt)) {
+                return response;
+            }
+            long delayMs = delayFor(attempt);
+            if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs) >= deadline) {
+                return response;
+            }
+            response.close();
+            sleep(delayMs);
+        }
+    }
+
+    private boolean shouldRetry(Chain chain, int attempt) {
+        return attempt < maxAttempts && !chain.call().isCanceled();
+    }
+
+    private boolean backOff(int attempt, long deadline) throws IOException {
+        long delayMs = delayFor(attempt);
+        if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs) >= deadline) return false;
+        sleep(delayMs);
+        return true;
+    }
+
+    /** Full jitter: uniform in [0, min(max, base * 2^(attempt-1))]. */
+    long delayFor(int attempt) {
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static boolean isReplayable(Request request) {
+        switch (request.method()) {
+            case "GET":
+            case "HEAD":
+            case "PUT":
+            case "DELETE":
+            case "OPTIONS":
+                return true;
+            default:
+                return request.header(IDEMPOTENCY_KEY) != null;
+        }
+    }
+
+    // A cancelled call or interrupted thread; a SocketTimeoutException is just a slow network
+    private static boolean isInterruption(IOException e) {
+        return e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException);
+    }
+
+    // Failed before a connection existed, so no byte of the request was sent
+    private static boolean isConnectFailure(IOException e) {
+        return e instanceof ConnectException || e instanceof UnknownHostException
+                || e instanceof NoRouteToHostException;
+    }
+
+    private static boolean isTransient(int code) {
+        return code == 429 || code == 502 || code == 503 || code == 504;
+    }
+
+    private static void sleep(long delayMs) throws IOException {
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Retry interrupted");
+        }
+    }
+}
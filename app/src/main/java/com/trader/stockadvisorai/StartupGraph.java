@@ -0,0 +1,135 @@
+package com.trader.stockadvisorai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs app initializers as a dependency graph. Every initializer starts as soon as its
+ * dependencies finish, so independent ones run in parallel. Callers wait only for the
+ * initializers marked critical; the rest keep running in the background. Each initializer's
+ * wall time is recorded.
+ */
+public class StartupGraph {
+
+    public interface Initializer {
+        void run() throws Exception;
+    }
+
+    private static class Node {
+        final String name;
+        final Initializer initializer;
+        final List<String> dependsOn;
+        final List<Node> dependents = new ArrayList<>();
+        final AtomicInteger pendingDeps = new AtomicInteger();
+        boolean critical;
+
+        Node(String name, boolean critical, Initializer initializer, List<String> dependsOn) {
+            this.name = name;
+            this.critical = critical;
+            this.initializer = initializer;
+            this.dependsOn = dependsOn;
+        }
+    }
+
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+    private final Map<String, Long> timingsMs = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Map<String, Throwable> failures = Collections.synchronizedMap(new LinkedHashMap<>());
+    private CountDownLatch criticalLatch;
+    private CountDownLatch allLatch;
+    private boolean started;
+
+    public StartupGraph add(String name, boolean critical, Initializer initializer, String... dependsOn) {
+        if (started) throw new IllegalStateException("Graph already started");
+        if (nodes.containsKey(name)) throw new IllegalArgumentException("Duplicate initializer: " + name);
+        nodes.put(name, new Node(name, critical, initializer, Arrays.asList(dependsOn)));
+        return this;
+    }
+
+    /** Starts every initializer whose dependencies are met; the rest follow as those finish. */
+    public synchronized void start(Executor executor) {
+        if (started) return;
+        started = true;
+
+        for (Node node : nodes.values()) {
+            for (String dep : node.dependsOn) {
+                Node parent = nodes.get(dep);
+                if (parent == null) throw new IllegalArgumentException(node.name + " depends on unknown " + dep);
+                parent.dependents.add(node);
+            }
+            node.pendingDeps.set(node.dependsOn.size());
+        }
+        // A critical initializer can only finish after its dependencies, so they are critical too
+        for (Node node : nodes.values()) {
+            if (node.critical) markCritical(node);
+        }
+
+        int critical = 0;
+        for (Node node : nodes.values()) {
+            if (node.critical) critical++;
+        }
+        criticalLatch = new CountDownLatch(critical);
+        allLatch = new CountDownLatch(nodes.size());
+        for (Node node : nodes.values()) {
+            if (node.pendingDeps.get() == 0) executor.execute(() -> runNode(node, executor));
+        }
+    }
+
+    private void markCritical(Node node) {
+        node.critical = true;
+        for (String dep : node.dependsOn) {
+            Node parent = nodes.get(dep);
+            if (!parent.critical) markCritical(parent);
+        }
+    }
+
+    private void runNode(Node node, Executor executor) {
+        long start = System.nanoTime();
+        try {
+            node.initializer.run();
+        } catch (Throwable t) {
+            // A failed initializer must not block startup; its dependents still run
+            failures.put(node.name, t);
+        }
+        timingsMs.put(node.name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        if (node.critical) criticalLatch.countDown();
+        allLatch.countDown();
+        for (Node dependent : node.dependents) {
+            if (dependent.pendingDeps.decrementAndGet() == 0) {
+                executor.execute(() -> runNode(dependent, executor));
+            }
+        }
+    }
+
+    /** Blocks until all critical initializers finished or the timeout expires. */
+    public boolean awaitCritical(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!started) throw new IllegalStateException("Graph not started");
+        return criticalLatch.await(timeout, unit);
+    }
+
+    public boolean awaitAll(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!started) throw new IllegalStateException("Graph not started");
+        return allLatch.await(timeout, unit);
+    }
+
+    /** Wall time of each finished initializer in milliseconds, in completion order. */
+    public Map<String, Long> timings() {
+        synchronized (timingsMs) {
+            return new LinkedHashMap<>(timingsMs);
+        }
+    }
+
+    public Map<String, Throwable> failures() {
+        synchronized (failures) {
+            return new LinkedHashMap<>(failures);
+        }
+    }
+}
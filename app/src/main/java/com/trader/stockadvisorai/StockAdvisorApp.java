@@ -0,0 +1,87 @@
+package com.trader.stockadvisorai;
+
+import android.app.Application;
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.text.TextRecognition;
+import com.google.mlkit.vision.text.TextRecognizer;
+import com.google.mlkit.vision.text.latin.TextRecognizerOptions;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/** Kicks off the startup graph as early as possible so the splash only waits for what it needs. */
+public class StockAdvisorApp extends Application {
+
+    private static final String TAG = "Startup";
+
+    public static final String INIT_FIREBASE = "firebase";
+    public static final String INIT_AUTH = "auth";
+    public static final String INIT_FIRESTORE = "firestore";
+    public static final String INIT_HTTP = "http";
+    public static final String INIT_MLKIT = "mlkit";
+
+    private static StartupGraph startup;
+
+    private final ExecutorService initExecutor = Executors.newFixedThreadPool(3);
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        long appStart = System.nanoTime();
+
+        startup = new StartupGraph()
+                // 🔥 Auth is all the splash needs to decide where to go
+                .add(INIT_FIREBASE, true, () -> FirebaseApp.initializeApp(this))
+                .add(INIT_AUTH, true, FirebaseAuth::getInstance, INIT_FIREBASE)
+                // The rest warms up in the background while the user looks at the next screen
+                .add(INIT_FIRESTORE, false, FirebaseFirestore::getInstance, INIT_FIREBASE)
+                .add(INIT_HTTP, false, BackendClient::get)
+                .add(INIT_MLKIT, false, StockAdvisorApp::warmUpTextRecognizer);
+        startup.start(initExecutor);
+
+        initExecutor.execute(() -> {
+            try {
+                if (startup.awaitAll(30, TimeUnit.SECONDS)) logTimings(appStart);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+            initExecutor.shutdown();
+        });
+    }
+
+    public static StartupGraph startup() {
+        return startup;
+    }
+
+    // Loads the recognizer's native model so the first real OCR doesn't pay for it
+    private static void warmUpTextRecognizer() throws Exception {
+        TextRecognizer recognizer = TextRecognition.getClient(TextRecognizerOptions.DEFAULT_OPTIONS);
+        Bitmap blank = Bitmap.createBitmap(32, 32, Bitmap.Config.ARGB_8888);
+        try {
+            Tasks.await(recognizer.process(InputImage.fromBitmap(blank, 0)), 10, TimeUnit.SECONDS);
+        } finally {
+            recognizer.close();
+            blank.recycle();
+        }
+    }
+
+    private static void logTimings(long appStart) {
+        for (Map.Entry<String, Long> entry : startup.timings().entrySet()) {
+            Log.d(TAG, entry.getKey() + " took " + entry.getValue() + " ms");
+        }
+        for (Map.Entry<String, Throwable> entry : startup.failures().entrySet()) {
+            Log.w(TAG, entry.getKey() + " failed", entry.getValue());
+        }
+        Log.d(TAG, "all initializers done after "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - appStart) + " ms");
+    }
+}
@@ -0,0 +1,246 @@
+package com.trader.stockadvisorai;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import okio.BufferedSource;
+
+/**
+ * Decodes the CBOR (RFC 8949) form of a {@code {"stocks": [...]}} payload straight from the
+ * response stream into {@link StockResult}s, with no intermediate text or tree. Only what the
+ * backend emits is supported: maps, arrays, text, integers, floats, booleans and null, in
+ * definite or indefinite length. Field defaults match {@link StockResponseParser}.
+ */
+public final class StockCborDecoder {
+
+    public static final String MEDIA_TYPE = "application/cbor";
+
+    private static final int MAJOR_UNSIGNED = 0;
+    private static final int MAJOR_NEGATIVE = 1;
+    private static final int MAJOR_BYTES = 2;
+    private static final int MAJOR_TEXT = 3;
+    private static final int MAJOR_ARRAY = 4;
+    private static final int MAJOR_MAP = 5;
+    private static final int MAJOR_TAG = 6;
+    private static final int MAJOR_SIMPLE = 7;
+    private static final int INDEFINITE = 31;
+    private static final int BREAK = 0xff;
+
+    private final BufferedSource source;
+    // Head of the item just read
+    private int major;
+    private int info;
+    private long argument;
+
+    private StockCborDecoder(BufferedSource source) {
+        this.source = source;
+    }
+
+    public static List<StockResult> decode(BufferedSource source) throws IOException {
+        return new StockCborDecoder(source).readResponse();
+    }
+
+    private List<StockResult> readResponse() throws IOException {
+        List<StockResult> stocks = null;
+        String error = null;
+
+        readHead();
+        expect(MAJOR_MAP);
+        long entries = argument;
+        for (long i = 0; info == INDEFINITE ? !atBreak() : i < entries; i++) {
+            String name = readText();
+            readHead();
+            if ("stocks".equals(name) && major == MAJOR_ARRAY) {
+                stocks = readStocks();
+            } else if ("error".equals(name) && major == MAJOR_TEXT) {
+                error = textBody();
+            } else {
+                skipBody();
+            }
+        }
+
+        if (stocks == null) {
+            throw new IOException(error != null ? error : "Response has no stocks");
+        }
+        return stocks;
+    }
+
+    private List<StockResult> readStocks() throws IOException {
+        boolean indefinite = info == INDEFINITE;
+        long count = argument;
+        List<StockResult> stocks = new ArrayList<>(indefinite ? 16 : (int) Math.min(count, 100_000));
+        for (long i = 0; indefinite ? !atBreak() : i < count; i++) {
+            stocks.add(readStock());
+        }
+        return stocks;
+    }
+
+    private StockResult readStock() throws IOException {
+        String symbol = null;
+        double current = Double.NaN;
+        int quantity = 0;
+        double invested = 0.0;
+        double yesterday = 0.0;
+        double predicted = 0.0;
+        String advice = StockResult.NO_ADVICE;
+
+        readHead();
+        expect(MAJOR_MAP);
+        boolean indefinite = info == INDEFINITE;
+        long entries = argument;
+        for (long i = 0; indefinite ? !atBreak() : i < entries; i++) {
+            String name = readText();
+            readHead();
+            if (isNull()) continue;
+            switch (name) {
+                case "symbol":
+                    symbol = textBody();
+                    break;
+                case "current_price":
+                    current = numberBody();
+                    break;
+                case "quantity":
+                    quantity = (int) numberBody();
+                    break;
+                case "invested":
+                    invested = numberBody();
+                    break;
+                case "yesterday_close":
+                    yesterday = numberBody();
+                    break;
+                case "predicted_price":
+                    predicted = numberBody();
+                    break;
+                case "advice":
+                    advice = textBody();
+                    break;
+                default:
+                    skipBody();
+            }
+        }
+
+        if (symbol == null || Double.isNaN(current)) {
+            throw new IOException("Stock entry missing symbol or current_price");
+        }
+        return new StockResult(symbol, current, quantity, invested, yesterday, predicted, advice);
+    }
+
+    private void readHead() throws IOException {
+        int initial = source.readByte() & 0xff;
+        major = initial >>> 5;
+        info = initial & 0x1f;
+        if (info < 24) {
+            argument = info;
+        } else if (info == 24) {
+            argument = source.readByte() & 0xffL;
+        } else if (info == 25) {
+            argument = source.readShort() & 0xffffL;
+        } else if (info == 26) {
+            argument = source.readInt() & 0xffffffffL;
+        } else if (info == 27) {
+            argument = source.readLong();
+        } else if (info == INDEFINITE && major >= MAJOR_BYTES && major <= MAJOR_MAP) {
+            argument = -1;
+        } else {
+            throw new IOException("Unsupported CBOR item " + initial);
+        }
+    }
+
+    /** Consumes the break byte that ends an indefinite-length item, if it is next. */
+    private boolean atBreak() throws IOException {
+        source.require(1);
+        if ((source.getBuffer().getByte(0) & 0xff) != BREAK) return false;
+        source.skip(1);
+        return true;
+    }
+
+    private void expect(int expectedMajor) throws IOException {
+        if (major != expectedMajor) {
+            throw new IOException("Expected CBOR major type " + expectedMajor + " but was " + major);
+        }
+    }
+
+    private boolean isNull() {
+        return major == MAJOR_SIMPLE && (info == 22 || info == 23);
+    }
+
+    private String readText() throws IOException {
+        readHead();
+        return textBody();
+    }
+
+    private String textBody() throws IOException {
+        expect(MAJOR_TEXT);
+        if (info != INDEFINITE) return source.readUtf8(argument);
+
+        StringBuilder text = new StringBuilder();
+        while (!atBreak()) {
+            readHead();
+            expect(MAJOR_TEXT);
+            text.append(source.readUtf8(argument));
+        }
+        return text.toString();
+    }
+
+    private double numberBody() throws IOException {
+        switch (major) {
+            case MAJOR_UNSIGNED:
+                return argument >= 0 ? argument : argument + 0x1p64;
+            case MAJOR_NEGATIVE:
+                return -1.0 - argument;
+            case MAJOR_SIMPLE:
+                if (info == 25) return halfToDouble((int) argument);
+                if (info == 26) return Float.intBitsToFloat((int) argument);
+                if (info == 27) return Double.longBitsToDouble(argument);
+                // fall through
+            default:
+                throw new IOException("Expected a CBOR number but was major type " + major);
+        }
+    }
+
+    private void skipBody() throws IOException {
+        switch (major) {
+            case MAJOR_BYTES:
+            case MAJOR_TEXT:
+                if (info != INDEFINITE) {
+                    source.skip(argument);
+                } else {
+                    while (!atBreak()) {
+                        readHead();
+                        source.skip(argument);
+                    }
+                }
+                break;
+            case MAJOR_ARRAY:
+            case MAJOR_MAP:
+                long items = major == MAJOR_MAP ? argument * 2 : argument;
+                boolean indefinite = info == INDEFINITE;
+                for (long i = 0; indefinite ? !atBreak() : i < items; i++) {
+                    readHead();
+                    skipBody();
+                }
+                break;
+            case MAJOR_TAG:
+                readHead();
+                skipBody();
+                break;
+            default:
+                // Integers and simple values are fully consumed by their head
+        }
+    }
+
+    static double halfToDouble(int bits) {
+        int exponent = (bits >> 10) & 0x1f;
+        int mantissa = bits & 0x3ff;
+        double value;
+        if (exponent == 0) {
+            value = mantissa * 0x1p-24;
+        } else if (exponent == 31) {
+            value = mantissa == 0 ? Double.POSITIVE_INFINITY : Double.NaN;
+        } else {
+            value = (1 + mantissa / 1024.0) * Math.pow(2, exponent - 15);
+        }
+        return (bits & 0x8000) != 0 ? -value : value;
+    }
+}
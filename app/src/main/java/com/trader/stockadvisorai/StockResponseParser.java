@@ -0,0 +1,151 @@
+package com.trader.stockadvisorai;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pull parser for the {@code {"stocks": [...]}} payloads returned by the Flask backend.
+ * Decodes straight into {@link StockResult} rows without building an intermediate JSON tree.
+ */
+public final class StockResponseParser {
+
+    private StockResponseParser() {}
+
+    public static List<StockResult> parse(String json) throws IOException {
+        return parse(new StringReader(json));
+    }
+
+    public static List<StockResult> parse(InputStream in) throws IOException {
+        return parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    public static List<StockResult> parse(Reader in) throws IOException {
+        try (JsonReader reader = new JsonReader(in)) {
+            List<StockResult> stocks = null;
+            String error = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("stocks".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    stocks = readStocks(reader);
+                } else if ("error".equals(name) && reader.peek() == JsonToken.STRING) {
+                    error = reader.nextString();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (stocks == null) {
+                throw new IOException(error != null ? error : "Response has no stocks");
+            }
+            return stocks;
+        }
+    }
+
+    /**
+     * The {@code candidates} of a {@code /suggest-stocks} response: every stock the server priced,
+     * with only a symbol and price. Empty for responses that don't list them.
+     */
+    public static List<StockResult> parseCandidates(String json) throws IOException {
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            List<StockResult> candidates = new ArrayList<>();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("candidates".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    candidates = readStocks(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return candidates;
+        }
+    }
+
+    private static List<StockResult> readStocks(JsonReader reader) throws IOException {
+        List<StockResult> stocks = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            stocks.add(readStock(reader));
+        }
+        reader.endArray();
+        return stocks;
+    }
+
+    /** Reads one stock object; {@code symbol} and {@code current_price} are required. */
+    public static StockResult readStock(JsonReader reader) throws IOException {
+        StockFields stock = new StockFields();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+            } else if (!stock.read(name, reader)) {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return stock.toStock();
+    }
+
+    /**
+     * A stock object's fields, collected as its names come by. Lets a reader that doesn't yet know
+     * whether an object is a stock (an NDJSON line may be the summary) decode it in one pass.
+     */
+    static final class StockFields {
+        private String symbol;
+        private double current = Double.NaN;
+        private int quantity;
+        private double invested;
+        private double yesterday;
+        private double predicted;
+        private String advice = StockResult.NO_ADVICE;
+
+        /** Consumes the non-null value of {@code name} if it is a stock field; false otherwise. */
+        boolean read(String name, JsonReader reader) throws IOException {
+            switch (name) {
+                case "symbol":
+                    symbol = reader.nextString();
+                    return true;
+                case "current_price":
+                    current = reader.nextDouble();
+                    return true;
+                case "quantity":
+                    quantity = (int) reader.nextDouble();
+                    return true;
+                case "invested":
+                    invested = reader.nextDouble();
+                    return true;
+                case "yesterday_close":
+                    yesterday = reader.nextDouble();
+                    return true;
+                case "predicted_price":
+                    predicted = reader.nextDouble();
+                    return true;
+                case "advice":
+                    advice = reader.nextString();
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        StockResult toStock() throws IOException {
+            if (symbol == null || Double.isNaN(current)) {
+                throw new IOException("Stock entry missing symbol or current_price");
+            }
+            return new StockResult(symbol, current, quantity, invested, yesterday, predicted, advice);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.trader.stockadvisorai;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.List;
+
+/** Writes rows back out in the backend's {@code {"stocks": [...]}} shape. */
+public final class StockResponseWriter {
+
+    private StockResponseWriter() {}
+
+    public static String toJson(List<StockResult> stocks) {
+        StringWriter out = new StringWriter(stocks.size() * 128);
+        try {
+            write(stocks, out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+
+    public static void write(List<StockResult> stocks, Writer out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginObject().name("stocks").beginArray();
+        for (StockResult stock : stocks) {
+            writeStock(stock, writer);
+        }
+        writer.endArray().endObject();
+        writer.flush();
+    }
+
+    /** One stock object, as in the array above or on its own NDJSON line. */
+    public static void writeStock(StockResult stock, JsonWriter writer) throws IOException {
+        writer.beginObject()
+                .name("symbol").value(stock.symbol)
+                .name("current_price").value(stock.currentPrice);
+        if (stock.quantity > 0) writer.name("quantity").value(stock.quantity);
+        if (stock.invested > 0) writer.name("invested").value(stock.invested);
+        if (stock.yesterdayClose > 0) writer.name("yesterday_close").value(stock.yesterdayClose);
+        if (stock.predictedPrice > 0) writer.name("predicted_price").value(stock.predictedPrice);
+        if (stock.hasAdvice()) writer.name("advice").value(stock.advice);
+        writer.endObject();
+    }
+}
@@ -0,0 +1,94 @@
+package com.trader.stockadvisorai;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One row of a {@code stocks} payload from {@code /analyze-portfolio} or {@code /suggest-stocks}.
+ * Optional fields fall back to the same defaults the dashboard has always used.
+ */
+public class StockResult {
+
+    public static final String NO_ADVICE = "N/A";
+
+    public final String symbol;
+    public final double currentPrice;
+    public final int quantity;
+    public final double invested;
+    public final double yesterdayClose;
+    public final double predictedPrice;
+    public final String advice;
+
+    public StockResult(String symbol, double currentPrice, int quantity, double invested,
+                       double yesterdayClose, double predictedPrice, String advice) {
+        this.symbol = symbol;
+        this.currentPrice = currentPrice;
+        this.quantity = quantity;
+        this.invested = invested;
+        this.yesterdayClose = yesterdayClose;
+        this.predictedPrice = predictedPrice;
+        this.advice = advice != null ? advice : NO_ADVICE;
+    }
+
+    /** Same row with a live price; returns {@code this} when the price is unchanged. */
+    public StockResult withCurrentPrice(double price) {
+        if (Double.compare(price, currentPrice) == 0) return this;
+        return new StockResult(symbol, price, quantity, invested, yesterdayClose, predictedPrice, advice);
+    }
+
+    public boolean hasAdvice() {
+        return !NO_ADVICE.equals(advice);
+    }
+
+    /** 📊 Card text shown on the result dashboard. */
+    public String toDisplayText() {
+        StringBuilder info = new StringBuilder(128);
+        info.append("📊 ").append(symbol);
+        info.append("\nCurrent: ₹").append(currentPrice);
+        if (quantity > 0) info.append("\nSuggested Quantity: ").append(quantity);
+        if (invested > 0) info.append("\nInvested: ₹").append(invested);
+        if (yesterdayClose > 0) info.append("\nYesterday: ₹").append(yesterdayClose);
+        if (predictedPrice > 0) info.append("\nPredicted: ₹").append(predictedPrice);
+        if (hasAdvice()) info.append("\nAdvice: ").append(advice);
+        return info.toString();
+    }
+
+    /** Document body written to {@code prediction_history}; {@code uid} scopes it to a user. */
+    public Map<String, Object> toHistoryEntry(String uid, long timestamp) {
+        Map<String, Object> entry = new HashMap<>(16);
+        entry.put("uid", uid);
+        entry.put("symbol", symbol);
+        entry.put("current_price", currentPrice);
+        entry.put("quantity", quantity);
+        entry.put("invested", invested);
+        entry.put("yesterday_close", yesterdayClose);
+        entry.put("predicted_price", predictedPrice);
+        entry.put("advice", advice);
+        entry.put("timestamp", timestamp);
+        return entry;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StockResult)) return false;
+        StockResult other = (StockResult) o;
+        return Double.compare(currentPrice, other.currentPrice) == 0
+                && quantity == other.quantity
+                && Double.compare(invested, other.invested) == 0
+                && Double.compare(yesterdayClose, other.yesterdayClose) == 0
+                && Double.compare(predictedPrice, other.predictedPrice) == 0
+                && symbol.equals(other.symbol)
+                && advice.equals(other.advice);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = symbol.hashCode();
+        result = 31 * result + Double.hashCode(currentPrice);
+        result = 31 * result + quantity;
+        result = 31 * result + Double.hashCode(predictedPrice);
+        result = 31 * result + advice.hashCode();
+        return result;
+    }
+}
@@ -0,0 +1,175 @@
+package com.trader.stockadvisorai;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Shows one {@link PortfolioSnapshot} through a permutation of its row indexes. Searching or
+ * re-sorting swaps the permutation; row objects are built on first bind and kept until their
+ * values change, so neither a query nor a price tick re-creates rows that didn't move.
+ */
+public class StockResultAdapter extends RecyclerView.Adapter<StockResultAdapter.ViewHolder> {
+
+    private static final Object PRICE_CHANGED = new Object();
+
+    private PortfolioSnapshot snapshot;
+    private StockResult[] rows = new StockResult[0];
+    private int[] visible = new int[0];
+    private int visibleCount;
+    // Row index -> adapter position, or -1 when the row is filtered out
+    private int[] positionOf = new int[0];
+
+    public StockResultAdapter() {
+        setHasStableIds(true);
+    }
+
+    /**
+     * Shows {@code snapshot}. A snapshot of different rows resets the view to server order; a
+     * price update of the same rows only rebinds the rows whose values changed, and a streamed
+     * result that grew keeps the rows already built.
+     */
+    public void submitSnapshot(PortfolioSnapshot snapshot) {
+        PortfolioSnapshot previous = this.snapshot;
+        this.snapshot = snapshot;
+        if (previous != null && previous.symbolIds != snapshot.symbolIds && snapshot.startsWith(previous)) {
+            // New rows only ever land after the old ones; the caller's next query shows them
+            rows = Arrays.copyOf(rows, snapshot.size());
+            positionOf = Arrays.copyOf(positionOf, snapshot.size());
+            Arrays.fill(positionOf, previous.size(), positionOf.length, -1);
+            return;
+        }
+        if (previous == null || previous.symbolIds != snapshot.symbolIds) {
+            int n = snapshot.size();
+            rows = new StockResult[n];
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) all[i] = i;
+            positionOf = new int[n];
+            // Row indexes of another result name other stocks, so there is nothing to diff
+            reorder(all, n);
+            notifyDataSetChanged();
+            return;
+        }
+        for (int row = 0; row < rows.length; row++) {
+            if (rows[row] == null || snapshot.matches(row, rows[row])) continue;
+            rows[row] = null;
+            if (positionOf[row] >= 0) notifyItemChanged(positionOf[row], PRICE_CHANGED);
+        }
+    }
+
+    /**
+     * Shows the first {@code count} row indexes of {@code order}, in that order. The adapter keeps
+     * a reference to {@code order}, so hand it a buffer that is not written again until the next call.
+     * An unchanged order notifies nothing: rows whose prices ticked were already rebound in place.
+     * Otherwise the old and new orders are diffed, so rows that stay visible move instead of the
+     * whole list rebinding.
+     */
+    public void showRows(int[] order, int count) {
+        int[] previous = visible;
+        int previousCount = visibleCount;
+        if (count == previousCount && rangeEquals(order, previous, count)) {
+            visible = order;
+            return;
+        }
+        reorder(order, count);
+        if (order == previous) {
+            notifyDataSetChanged();
+            return;
+        }
+        DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return previousCount;
+            }
+
+            @Override
+            public int getNewListSize() {
+                return count;
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                return previous[oldPosition] == order[newPosition];
+            }
+
+            // Rows whose values changed were already rebound with PRICE_CHANGED
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                return true;
+            }
+        }).dispatchUpdatesTo(this);
+    }
+
+    private void reorder(int[] order, int count) {
+        visible = order;
+        visibleCount = count;
+        Arrays.fill(positionOf, -1);
+        for (int position = 0; position < count; position++) {
+            positionOf[order[position]] = position;
+        }
+    }
+
+    private static boolean rangeEquals(int[] a, int[] b, int count) {
+        if (a == b) return false; // Rewritten in place; nothing left to compare against
+        for (int i = 0; i < count; i++) {
+            if (a[i] != b[i]) return false;
+        }
+        return true;
+    }
+
+    public StockResult getItem(int position) {
+        int row = visible[position];
+        StockResult result = rows[row];
+        if (result == null) {
+            result = snapshot.row(row);
+            rows[row] = result;
+        }
+        return result;
+    }
+
+    @Override
+    public int getItemCount() {
+        return visibleCount;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return visible[position];
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_stock_result, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        holder.info.setText(getItem(position).toDisplayText());
+    }
+
+    // A price tick rebinds the text in place instead of cross-fading the whole card
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        onBindViewHolder(holder, position);
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView info;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            info = itemView.findViewById(R.id.stockInfo);
+        }
+    }
+}
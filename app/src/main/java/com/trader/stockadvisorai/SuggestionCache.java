@@ -0,0 +1,166 @@
+package com.trader.stockadvisorai;
+
+import android.content.Context;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.Nullable;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Two-tier cache of {@code /suggest-stocks} responses, keyed by a normalized amount bucket.
+ * A small LRU sits in memory in front of one file per bucket under the cache directory.
+ * Entries expire on {@link MarketHours} boundaries; expired entries are still served while a
+ * refresh runs in the background, but never once they are a full trading session old.
+ *
+ * <p>{@link #get} and {@link #put} touch the disk, so call them off the main thread.
+ */
+public class SuggestionCache {
+
+    private static final String TAG = "SuggestionCache";
+    private static final int MEMORY_ENTRIES = 32;
+    private static final int MAX_DISK_ENTRIES = 64;
+
+    private static volatile SuggestionCache instance;
+
+    public static class Entry {
+        public final String json;
+        public final long fetchedAt;
+
+        Entry(String json, long fetchedAt) {
+            this.json = json;
+            this.fetchedAt = fetchedAt;
+        }
+
+        public boolean isFresh(long now) {
+            return now < MarketHours.expiryFor(fetchedAt);
+        }
+
+        /** Fresh, or stale by less than a session: good enough to show while refreshing. */
+        public boolean isUsable(long now) {
+            return isFresh(now) || now - fetchedAt < MarketHours.SESSION_MS;
+        }
+    }
+
+    private final LruCache<String, Entry> memory = new LruCache<>(MEMORY_ENTRIES);
+    private final File dir;
+    private final Set<String> refreshing = Collections.synchronizedSet(new HashSet<>());
+    @Nullable private volatile Entry latest;
+
+    public static SuggestionCache get(Context context) {
+        if (instance == null) {
+            synchronized (SuggestionCache.class) {
+                if (instance == null) {
+                    instance = new SuggestionCache(new File(context.getApplicationContext().getCacheDir(), "suggestions"));
+                }
+            }
+        }
+        return instance;
+    }
+
+    SuggestionCache(File dir) {
+        this.dir = dir;
+    }
+
+    /** Amounts that agree to three significant digits share a bucket (within about 1%). */
+    public static String bucket(double amount) {
+        return new BigDecimal(amount)
+                .round(new MathContext(3, RoundingMode.HALF_UP))
+                .stripTrailingZeros()
+                .toPlainString();
+    }
+
+    @Nullable
+    public Entry get(double amount) {
+        String key = bucket(amount);
+        Entry entry = memory.get(key);
+        if (entry != null) return entry;
+
+        File file = new File(dir, key + ".json");
+        if (!file.exists()) return null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            long fetchedAt = Long.parseLong(reader.readLine());
+            StringBuilder json = new StringBuilder();
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                json.append(buffer, 0, read);
+            }
+            entry = new Entry(json.toString(), fetchedAt);
+            memory.put(key, entry);
+            remember(entry);
+            return entry;
+        } catch (IOException | NumberFormatException | NullPointerException e) {
+            Log.w(TAG, "Dropping unreadable cache entry " + key, e);
+            file.delete();
+            return null;
+        }
+    }
+
+    public void put(double amount, String json) {
+        String key = bucket(amount);
+        Entry entry = new Entry(json, System.currentTimeMillis());
+        memory.put(key, entry);
+        remember(entry);
+
+        if (!dir.exists() && !dir.mkdirs()) return;
+        File tmp = new File(dir, key + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8)) {
+            writer.write(Long.toString(entry.fetchedAt));
+            writer.write('\n');
+            writer.write(json);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write cache entry " + key, e);
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(new File(dir, key + ".json"))) tmp.delete();
+        trimDisk();
+    }
+
+    /** Most recently fetched suggestion set seen by this process, whatever its amount. */
+    @Nullable
+    public Entry latest() {
+        return latest;
+    }
+
+    private void remember(Entry entry) {
+        Entry current = latest;
+        if (current == null || entry.fetchedAt >= current.fetchedAt) latest = entry;
+    }
+
+    /** Returns false if a refresh for this bucket is already running. */
+    public boolean beginRefresh(double amount) {
+        return refreshing.add(bucket(amount));
+    }
+
+    public void endRefresh(double amount) {
+        refreshing.remove(bucket(amount));
+    }
+
+    private void trimDisk() {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".json"));
+        if (files == null || files.length <= MAX_DISK_ENTRIES) return;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (int i = 0; i < files.length - MAX_DISK_ENTRIES; i++) {
+            files[i].delete();
+        }
+    }
+}
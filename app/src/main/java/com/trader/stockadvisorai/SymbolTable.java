@@ -0,0 +1,34 @@
+package com.trader.stockadvisorai;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only intern table: each distinct string (ticker or advice label) is stored once and
+ * referenced by a small int everywhere else. The set of NSE tickers is bounded, so the table
+ * stays small no matter how many results pass through.
+ */
+public final class SymbolTable {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    public synchronized int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) return id;
+        int next = names.size();
+        names.add(name);
+        ids.put(name, next);
+        return next;
+    }
+
+    public synchronized String name(int id) {
+        return names.get(id);
+    }
+
+    public synchronized int size() {
+        return names.size();
+    }
+}
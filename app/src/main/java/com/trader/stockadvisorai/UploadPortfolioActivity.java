@@ -1,7 +1,9 @@
 package com.trader.stockadvisorai;
 
 import android.app.Activity;
+import android.content.ClipData;
 import android.content.Intent;
+import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
@@ -13,28 +15,36 @@ import androidx.appcompat.app.AppCompatActivity;
 import android.content.pm.PackageManager;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
-
-import okhttp3.*;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class UploadPortfolioActivity extends AppCompatActivity {
 
     private static final int IMAGE_PICK_CODE = 1000;
     private static final int PERMISSION_CODE = 1;
+    private static final int MAX_IMAGES_IN_FLIGHT = 3;
 
     private ImageView previewImage;
     private Button uploadBtn;
+    private CompoundButton onDeviceSwitch;
     private Uri imageUri = null;
 
-    OkHttpClient client = new OkHttpClient.Builder()
-            .connectTimeout(30, java.util.concurrent.TimeUnit.SECONDS)
-            .readTimeout(60, java.util.concurrent.TimeUnit.SECONDS)
-            .writeTimeout(60, java.util.concurrent.TimeUnit.SECONDS)
-            .build();
-
-    String backendUrl = "http://192.168.0.103:5000/analyze-portfolio";
+    private final ExecutorService decodeExecutor = Executors.newSingleThreadExecutor();
+    private PortfolioTextExtractor textExtractor;
+    private final LifecycleCallScope callScope = new LifecycleCallScope(this);
+    private BackendClient.Subscription currentRequest;
+    private BatchAnalysisPipeline batchPipeline;
+    private BackendClient.Subscription currentStream;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -43,10 +53,13 @@ public class UploadPortfolioActivity extends AppCompatActivity {
 
         previewImage = findViewById(R.id.previewImage);
         uploadBtn = findViewById(R.id.uploadBtn);
+        onDeviceSwitch = findViewById(R.id.onDeviceSwitch);
+        textExtractor = new PortfolioTextExtractor();
 
         askStoragePermission();
 
         uploadBtn.setOnClickListener(v -> pickImage());
+        observeBackgroundUpload();
     }
 
     private void askStoragePermission() {
@@ -66,8 +79,9 @@ public class UploadPortfolioActivity extends AppCompatActivity {
     }
 
     private void pickImage() {
-        Intent intent = new Intent(Intent.ACTION_PICK);
+        Intent intent = new Intent(Intent.ACTION_GET_CONTENT);
         intent.setType("image/*");
+        intent.putExtra(Intent.EXTRA_ALLOW_MULTIPLE, true);
         startActivityForResult(intent, IMAGE_PICK_CODE);
     }
 
@@ -76,63 +90,360 @@ public class UploadPortfolioActivity extends AppCompatActivity {
         super.onActivityResult(requestCode, resultCode, data);
 
         if (requestCode == IMAGE_PICK_CODE && resultCode == Activity.RESULT_OK && data != null) {
-            imageUri = data.getData();
+            ClipData clip = data.getClipData();
+            if (clip != null && clip.getItemCount() > 1) {
+                List<Uri> images = new ArrayList<>(clip.getItemCount());
+                for (int i = 0; i < clip.getItemCount(); i++) {
+                    images.add(clip.getItemAt(i).getUri());
+                }
+                previewImage.setImageURI(images.get(0));
+                analyzeBatch(images);
+                return;
+            }
+
+            imageUri = clip != null ? clip.getItemAt(0).getUri() : data.getData();
             previewImage.setImageURI(imageUri);
 
             if (imageUri != null) {
-                try {
+                if (onDeviceSwitch.isChecked()) {
+                    analyzeOnDevice(imageUri);
+                } else {
                     sendImageToFlask(imageUri);
-                } catch (IOException e) {
-                    Toast.makeText(this, "Upload failed", Toast.LENGTH_SHORT).show();
                 }
             }
         }
     }
 
-    private void sendImageToFlask(Uri imageUri) throws IOException {
-        String filePath = FileUtils.getPath(this, imageUri);
+    // 🗂️ Several screenshots of one portfolio: pipeline them and merge into one dashboard
+    private void analyzeBatch(List<Uri> images) {
+        if (batchPipeline != null) batchPipeline.cancel();
+        Toast.makeText(this, "Analyzing " + images.size() + " screenshots…", Toast.LENGTH_SHORT).show();
 
-        if (filePath == null) {
-            Toast.makeText(this, "Failed to get image path", Toast.LENGTH_SHORT).show();
-            return;
-        }
+        batchPipeline = new BatchAnalysisPipeline(getContentResolver(),
+                new File(getCacheDir(), "uploads"), MAX_IMAGES_IN_FLIGHT,
+                new BatchAnalysisPipeline.Listener() {
+                    @Override
+                    public void onProgress(int completed, int total) {
+                        Log.d("BatchAnalysis", completed + "/" + total + " screenshots analyzed");
+                    }
+
+                    @Override
+                    public void onComplete(List<StockResult> merged, int failed) {
+                        batchPipeline = null;
+                        if (merged.isEmpty()) {
+                            Toast.makeText(UploadPortfolioActivity.this, "Error from server", Toast.LENGTH_SHORT).show();
+                            return;
+                        }
+                        if (failed > 0) {
+                            Toast.makeText(UploadPortfolioActivity.this, failed + " screenshots could not be read", Toast.LENGTH_SHORT).show();
+                        }
+                        storeAndOpen(merged);
+                    }
+                });
+        batchPipeline.run(images);
+    }
+
+    // 🔍 Read the holdings table on the device and send only the parsed rows
+    private void analyzeOnDevice(Uri imageUri) {
+        decodeExecutor.execute(() -> {
+            Bitmap bitmap;
+            try {
+                bitmap = ImageUploadBody.decodeSampled(getContentResolver(), imageUri,
+                        ImageUploadBody.DEFAULT_MAX_DIMENSION, Bitmap.Config.ARGB_8888);
+            } catch (IOException e) {
+                Log.w("OCR", "Decode failed, uploading image instead", e);
+                runOnUiThread(() -> sendImageToFlask(imageUri));
+                return;
+            }
+
+            runOnUiThread(() -> {
+                if (isDestroyed()) {
+                    bitmap.recycle();
+                    return;
+                }
+                textExtractor.extract(bitmap)
+                        .addOnCompleteListener(task -> bitmap.recycle())
+                        .addOnSuccessListener(result -> {
+                            Log.d("OCR", result.holdings.size() + " holdings, confidence " + result.confidence);
+                            if (!result.holdings.isEmpty() && result.confidence >= PortfolioTextExtractor.MIN_CONFIDENCE) {
+                                startRequest(callback -> BackendClient.get().analyzeHoldings(result.holdings, callback));
+                            } else {
+                                sendImageToFlask(imageUri);
+                            }
+                        })
+                        .addOnFailureListener(e -> {
+                            Log.w("OCR", "Text recognition failed, uploading image instead", e);
+                            sendImageToFlask(imageUri);
+                        });
+            });
+        });
+    }
+
+    // 📤 Streams the analysis so the dashboard opens on the first row; if the stream can't start,
+    // falls back to the chunked, resumable upload that survives leaving the screen or process death.
+    // A screenshot analyzed before is answered from the local cache or the backend's result for its
+    // hash (a conditional GET), so only a miss uploads the image.
+    private void sendImageToFlask(Uri imageUri) {
+        decodeExecutor.execute(() -> {
+            String contentHash = null;
+            try (InputStream in = getContentResolver().openInputStream(imageUri)) {
+                if (in != null) contentHash = ContentHash.sha256(in);
+            } catch (IOException e) {
+                Log.w("Flask Response", "Could not hash image, the upload worker will retry", e);
+            }
 
-        File file = new File(filePath);
-        RequestBody fileBody = RequestBody.create(file, MediaType.parse("image/jpeg"));
+            if (contentHash != null) {
+                String existing = null;
+                try {
+                    existing = PortfolioUploadWorker.lookupExisting(this, contentHash);
+                } catch (IOException e) {
+                    Log.w("Flask Response", "Result lookup failed, analyzing the image", e);
+                }
+                if (existing != null) {
+                    storeAndOpen(existing);
+                    return;
+                }
+            }
 
-        MultipartBody requestBody = new MultipartBody.Builder()
-                .setType(MultipartBody.FORM)
-                .addFormDataPart("image", file.getName(), fileBody)
-                .build();
+            String hash = contentHash;
+            runOnUiThread(() -> {
+                if (!isDestroyed()) streamAnalysis(imageUri, hash);
+            });
+        });
+    }
 
-        Request request = new Request.Builder()
-                .url(backendUrl)
-                .post(requestBody)
-                .build();
+    private void uploadInBackground(Uri imageUri, String contentHash) {
+        PortfolioUploadWorker.enqueue(this, imageUri, contentHash);
+        Toast.makeText(this, "Uploading portfolio…", Toast.LENGTH_SHORT).show();
+    }
+
+    // 🌊 Rows go into the store as they arrive; the dashboard watches the result grow
+    private void streamAnalysis(Uri imageUri, @Nullable String contentHash) {
+        if (currentStream != null) currentStream.cancel();
+        ImageUploadBody image = new ImageUploadBody(getContentResolver(), imageUri);
+        StreamedResult result = new StreamedResult(imageUri, contentHash);
+        result.start(BackendClient.get().analyzePortfolioProgressively(image, image.fileName(), result));
+        currentStream = result;
+    }
 
-        client.newCall(request).enqueue(new Callback() {
-            @Override
-            public void onFailure(Call call, IOException e) {
-                runOnUiThread(() -> Toast.makeText(UploadPortfolioActivity.this, "Request failed", Toast.LENGTH_SHORT).show());
-                e.printStackTrace();
+    /**
+     * One streamed analysis. Listener calls arrive on an OkHttp thread; the store is thread-safe and
+     * UI work hops over. Once the first rows are in, the store owns the stream: closing the
+     * dashboard cancels it there, and cancelling this handle goes through the store too, so the
+     * result never stays half-open.
+     */
+    private class StreamedResult implements AnalysisStream.Listener, BackendClient.Subscription {
+        private final Uri imageUri;
+        @Nullable private final String contentHash;
+        private final String resultId = UUID.randomUUID().toString().replace("-", "");
+        private final PortfolioStore store = PortfolioStore.get(UploadPortfolioActivity.this);
+        private BackendClient.Subscription call;
+        // Guarded by this: begin() and cancel() must not interleave
+        private boolean begun;
+        private boolean cancelled;
+        // Only touched from the stream's callback thread
+        private int received;
+
+        StreamedResult(Uri imageUri, @Nullable String contentHash) {
+            this.imageUri = imageUri;
+            this.contentHash = contentHash;
+        }
+
+        synchronized void start(BackendClient.Subscription call) {
+            this.call = call;
+            if (cancelled) call.cancel();
+        }
+
+        @Override
+        public void cancel() {
+            BackendClient.Subscription call;
+            synchronized (this) {
+                cancelled = true;
+                call = this.call;
             }
+            if (call != null) call.cancel();
+            // A no-op unless the result was begun, in which case it is truncated
+            store.cancel(resultId);
+        }
 
-            @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                String json = response.body().string();
-                Log.d("Flask Response", json);
+        private synchronized void cancelCall() {
+            if (call != null) call.cancel();
+        }
 
-                if (response.isSuccessful()) {
-                    Intent intent = new Intent(UploadPortfolioActivity.this, ResultDashboardActivity.class);
-                    intent.putExtra("result", json);
-                    startActivity(intent);
-                } else {
-                    runOnUiThread(() -> Toast.makeText(UploadPortfolioActivity.this, "Error from server", Toast.LENGTH_SHORT).show());
+        @Override
+        public void onRows(List<StockResult> rows) {
+            boolean first;
+            synchronized (this) {
+                if (cancelled) return;
+                first = !begun;
+                if (first) {
+                    store.begin(resultId, this::cancelCall);
+                    begun = true;
                 }
             }
+            received += rows.size();
+            store.append(resultId, rows);
+            if (first) runOnUiThread(() -> {
+                // The dashboard owns the stream from here
+                if (currentStream == this) currentStream = null;
+                if (!isDestroyed()) openResult(resultId);
+            });
+        }
+
+        @Override
+        public void onComplete(int count, @Nullable String digest, @Nullable String etag, @Nullable String error) {
+            if (error != null) {
+                store.truncate(resultId);
+            } else {
+                store.complete(resultId);
+                PortfolioSnapshot result = store.get(resultId);
+                if (contentHash != null && result != null) {
+                    AnalysisResultCache.get(UploadPortfolioActivity.this)
+                            .put(contentHash, StockResponseWriter.toJson(result.rows()), digest, etag);
+                }
+            }
+            boolean empty = received == 0;
+            runOnUiThread(() -> {
+                if (empty) {
+                    Toast.makeText(UploadPortfolioActivity.this, "No stocks found", Toast.LENGTH_SHORT).show();
+                } else if (error != null) {
+                    Toast.makeText(UploadPortfolioActivity.this, "Analysis stopped early", Toast.LENGTH_SHORT).show();
+                }
+            });
+        }
+
+        @Override
+        public void onHttpError(int code, String body) {
+            Log.d("Flask Response", body);
+            runOnUiThread(() -> Toast.makeText(UploadPortfolioActivity.this,
+                    "Error from server", Toast.LENGTH_SHORT).show());
+        }
+
+        @Override
+        public void onFailure(IOException e) {
+            Log.w("Flask Response", "Analysis stream failed after " + received + " rows", e);
+            if (received > 0) {
+                store.truncate(resultId);
+                runOnUiThread(() -> Toast.makeText(UploadPortfolioActivity.this,
+                        "Connection lost; showing the rows received so far", Toast.LENGTH_SHORT).show());
+            } else {
+                runOnUiThread(() -> {
+                    if (!isDestroyed()) uploadInBackground(imageUri, contentHash);
+                });
+            }
+        }
+    }
+
+    private void observeBackgroundUpload() {
+        WorkManager.getInstance(this)
+                .getWorkInfosForUniqueWorkLiveData(PortfolioUploadWorker.UNIQUE_NAME)
+                .observe(this, infos -> {
+                    for (WorkInfo info : infos) {
+                        if (info.getState() == WorkInfo.State.SUCCEEDED) {
+                            openUploadResult(info.getOutputData().getString(PortfolioUploadWorker.KEY_RESULT_PATH));
+                        } else if (info.getState() == WorkInfo.State.FAILED) {
+                            Toast.makeText(this, "Error from server", Toast.LENGTH_SHORT).show();
+                            WorkManager.getInstance(this).pruneWork();
+                        }
+                    }
+                });
+    }
+
+    private void openUploadResult(String path) {
+        if (path == null) return;
+        decodeExecutor.execute(() -> {
+            File file = new File(path);
+            if (!file.exists()) return;
+            try (InputStream in = new FileInputStream(file)) {
+                String resultId = PortfolioStore.get(this).put(StockResponseParser.parse(in));
+                file.delete();
+                runOnUiThread(() -> {
+                    WorkManager.getInstance(this).pruneWork();
+                    if (!isDestroyed()) openResult(resultId);
+                });
+            } catch (IOException e) {
+                Log.e("Flask Response", "Failed to read upload result", e);
+            }
+        });
+    }
+
+    // Parsed once here, off the main thread; the dashboard gets only the store's result ID
+    private void storeAndOpen(String json) {
+        decodeExecutor.execute(() -> {
+            String resultId;
+            try {
+                resultId = PortfolioStore.get(this).putJson(json);
+            } catch (IOException e) {
+                Log.e("Flask Response", "Unreadable result", e);
+                runOnUiThread(() -> Toast.makeText(this, "Invalid response", Toast.LENGTH_SHORT).show());
+                return;
+            }
+            runOnUiThread(() -> {
+                if (!isDestroyed()) openResult(resultId);
+            });
         });
     }
 
+    // Snapshotting and hashing a large result is kept off the main thread too
+    private void storeAndOpen(List<StockResult> stocks) {
+        decodeExecutor.execute(() -> {
+            String resultId = PortfolioStore.get(this).put(stocks);
+            runOnUiThread(() -> {
+                if (!isDestroyed()) openResult(resultId);
+            });
+        });
+    }
+
+    private void openResult(String resultId) {
+        startActivity(ResultDashboardActivity.intentFor(this, resultId));
+    }
+
+    // A newly picked image supersedes the previous analysis; re-picking the same one joins it
+    private void startRequest(LifecycleCallScope.Starter starter) {
+        BackendClient.Subscription previous = currentRequest;
+        currentRequest = callScope.run(starter, resultCallback);
+        if (previous != null) previous.cancel();
+    }
+
+    private final BackendClient.ResponseCallback resultCallback = new BackendClient.ResponseCallback() {
+        @Override
+        public void onSuccess(String json) {
+            Log.d("Flask Response", json);
+            currentRequest = null;
+            storeAndOpen(json);
+        }
+
+        @Override
+        public void onStocks(List<StockResult> stocks) {
+            currentRequest = null;
+            storeAndOpen(stocks);
+        }
+
+        @Override
+        public void onHttpError(int code, String json) {
+            Log.d("Flask Response", json);
+            currentRequest = null;
+            Toast.makeText(UploadPortfolioActivity.this, "Error from server", Toast.LENGTH_SHORT).show();
+        }
+
+        @Override
+        public void onFailure(IOException e) {
+            currentRequest = null;
+            Toast.makeText(UploadPortfolioActivity.this, "Request failed", Toast.LENGTH_SHORT).show();
+            e.printStackTrace();
+        }
+    };
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        decodeExecutor.shutdownNow();
+        if (batchPipeline != null) batchPipeline.cancel();
+        // Only a stream that hasn't produced a row yet is still ours
+        if (currentStream != null) currentStream.cancel();
+        textExtractor.close();
+    }
+
     @Override
     public void onRequestPermissionsResult(int requestCode, String[] permissions, int[] grantResults) {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
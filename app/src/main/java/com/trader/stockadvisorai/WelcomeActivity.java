@@ -4,21 +4,53 @@ import android.app.Activity;
 import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.firebase.auth.FirebaseAuth;
+
+import java.util.concurrent.TimeUnit;
 
 public class WelcomeActivity extends Activity {
+
+    // Never hold the splash longer than this, even if an initializer hangs
+    private static final long MAX_SPLASH_MS = 3000;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private long splashStart;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_welcome);
+        splashStart = System.nanoTime();
 
-        // Redirect to Login after 2.5 seconds
-        new Handler().postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                Intent intent = new Intent(WelcomeActivity.this, LoginActivity.class);
-                startActivity(intent);
-                finish(); // So Welcome screen doesn't come back on back button
+        // Leave as soon as Firebase/Auth are ready instead of after a fixed delay
+        new Thread(() -> {
+            try {
+                StockAdvisorApp.startup().awaitCritical(MAX_SPLASH_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-        }, 2500); // 2500 ms = 2.5 sec
+            mainHandler.post(this::leaveSplash);
+        }, "splash-wait").start();
+    }
+
+    private void leaveSplash() {
+        if (isFinishing() || isDestroyed()) return;
+
+        // 👤 Returning users skip the login form
+        boolean signedIn;
+        try {
+            signedIn = FirebaseAuth.getInstance().getCurrentUser() != null;
+        } catch (IllegalStateException e) {
+            signedIn = false; // Firebase failed to initialize
+        }
+        Class<?> next = signedIn ? UserTypeActivity.class : LoginActivity.class;
+        Log.d("Startup", "splash -> " + next.getSimpleName() + " after "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - splashStart) + " ms");
+
+        startActivity(new Intent(this, next));
+        finish(); // So Welcome screen doesn't come back on back button
     }
 }
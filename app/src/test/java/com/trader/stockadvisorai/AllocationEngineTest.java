@@ -0,0 +1,100 @@
+package com.trader.stockadvisorai;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AllocationEngineTest {
+
+    private static StockResult candidate(String symbol, double price) {
+        return new StockResult(symbol, price, 0, 0, 0, 0, null);
+    }
+
+    @Test
+    public void neverExceedsBudget() {
+        Random random = new Random(42);
+        double[] prices = new double[300];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 50 + random.nextInt(500_000) / 100.0;
+        }
+
+        for (double budget : new double[]{10_000, 76_543.21, 1_000_000}) {
+            int[] quantities = AllocationEngine.allocate(prices, budget);
+            double spent = 0;
+            for (int i = 0; i < prices.length; i++) {
+                spent += quantities[i] * prices[i];
+            }
+            assertTrue(spent <= budget);
+        }
+    }
+
+    @Test
+    public void skipsStocksAboveFifthOfBudget() {
+        int[] quantities = AllocationEngine.allocate(new double[]{100, 3_000}, 10_000);
+
+        assertTrue(quantities[0] > 0);
+        assertEquals(0, quantities[1]);
+    }
+
+    @Test
+    public void reallocateSplitsEvenlyLikeTheServer() {
+        List<StockResult> candidates = Arrays.asList(
+                candidate("ITC.NS", 400), candidate("SBIN.NS", 800), candidate("TCS.NS", 3_850));
+
+        List<StockResult> allocated = AllocationEngine.reallocate(candidates, 8_000);
+
+        assertEquals(2, allocated.size());
+        assertEquals(10, allocated.get(0).quantity);
+        assertEquals(5, allocated.get(1).quantity);
+    }
+
+    @Test
+    public void largerAmountPicksUpNewlyAffordableStocks() {
+        List<StockResult> candidates = Arrays.asList(
+                candidate("ITC.NS", 400), candidate("SBIN.NS", 800), candidate("TCS.NS", 3_850));
+
+        List<StockResult> allocated = AllocationEngine.reallocate(candidates, 20_000);
+
+        // 4000 per stock is now within a fifth of the budget, so TCS joins and the split is 3 ways
+        assertEquals(3, allocated.size());
+        assertEquals(16, allocated.get(0).quantity);
+        assertEquals(8, allocated.get(1).quantity);
+        assertEquals("TCS.NS", allocated.get(2).symbol);
+        assertEquals(1, allocated.get(2).quantity);
+    }
+
+    @Test
+    public void stocksThatCannotBuyAShareStillCountInTheSplit() {
+        List<StockResult> candidates = Arrays.asList(
+                candidate("A.NS", 1_900), candidate("B.NS", 1_900), candidate("C.NS", 1_900),
+                candidate("D.NS", 1_900), candidate("E.NS", 1_900), candidate("F.NS", 1_900),
+                candidate("G.NS", 100));
+
+        List<StockResult> allocated = AllocationEngine.reallocate(candidates, 10_000);
+
+        // Split 7 ways (1428.57 each): only G affords a share, and it doesn't get the others' money
+        assertEquals(1, allocated.size());
+        assertEquals("G.NS", allocated.get(0).symbol);
+        assertEquals(14, allocated.get(0).quantity);
+    }
+
+    @Test
+    public void floorDivisionMatchesPython() {
+        assertEquals(9.0, AllocationEngine.floorDiv(1, 0.1), 0);
+        assertEquals(3.0, AllocationEngine.floorDiv(7, 2), 0);
+        assertEquals(2.0, AllocationEngine.floorDiv(0.3, 0.1), 0);
+    }
+
+    @Test
+    public void pricesAreRoundedForDisplayLikeTheServer() {
+        List<StockResult> allocated = AllocationEngine.reallocate(
+                Arrays.asList(candidate("ITC.NS", 440.123456)), 10_000);
+
+        assertEquals(440.12, allocated.get(0).currentPrice, 0);
+        assertEquals(22, allocated.get(0).quantity);
+    }
+}
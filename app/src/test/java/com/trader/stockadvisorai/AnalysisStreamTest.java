@@ -0,0 +1,208 @@
+package com.trader.stockadvisorai;
+
+import androidx.annotation.Nullable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.*;
+
+/** MockWebServer stands in for a progressive {@code /analyze-portfolio}. */
+public class AnalysisStreamTest {
+
+    private static final List<StockResult> ROWS = Arrays.asList(
+            new StockResult("TCS.NS", 3850.5, 2, 7701, 3800, 3900, "Buy"),
+            new StockResult("INFY.NS", 1500, 10, 15000, 1490, 1480, "Sell"),
+            new StockResult("ITC.NS", 440, 50, 22000, 438, 450, "Hold"));
+
+    private MockWebServer server;
+    // One entry per listener call, e.g. "rows TCS.NS,INFY.NS" or "complete 3"
+    private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+    private final AnalysisStream.Listener listener = new AnalysisStream.Listener() {
+        @Override
+        public void onRows(List<StockResult> rows) {
+            StringBuilder symbols = new StringBuilder();
+            for (StockResult row : rows) {
+                if (symbols.length() > 0) symbols.append(',');
+                symbols.append(row.symbol);
+            }
+            events.add("rows " + symbols);
+        }
+
+        @Override
+        public void onComplete(int count, @Nullable String digest, @Nullable String etag, @Nullable String error) {
+            events.add("complete " + count + (digest != null ? " " + digest : "") + (etag != null ? " " + etag : "")
+                    + (error != null ? " " + error : ""));
+        }
+
+        @Override
+        public void onHttpError(int code, String body) {
+            events.add("http " + code);
+        }
+
+        @Override
+        public void onFailure(IOException e) {
+            events.add("failure " + e.getClass().getSimpleName());
+        }
+    };
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private BackendClient.Subscription start() {
+        Request request = new Request.Builder()
+                .url(server.url(BackendClient.ANALYZE_PORTFOLIO))
+                .post(RequestBody.create(new byte[0], null))
+                .build();
+        return new AnalysisStream(new OkHttpClient(), request, listener).start();
+    }
+
+    private static MockResponse ndjson(String body) {
+        return new MockResponse()
+                .setHeader("Content-Type", AnalysisStream.MEDIA_TYPE)
+                .setBody(body);
+    }
+
+    private String next() throws InterruptedException {
+        return events.poll(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void deliversRowsThenSummary() throws Exception {
+        server.enqueue(ndjson(FakeBackend.ndjson(ROWS)));
+
+        start();
+
+        StringBuilder rows = new StringBuilder();
+        String event;
+        while ((event = next()) != null && event.startsWith("rows ")) {
+            if (rows.length() > 0) rows.append(',');
+            rows.append(event.substring(5));
+        }
+        assertEquals("TCS.NS,INFY.NS,ITC.NS", rows.toString());
+        assertEquals("complete 3", event);
+        RecordedRequest request = server.takeRequest();
+        assertTrue(request.getHeader("Accept").startsWith(AnalysisStream.MEDIA_TYPE));
+    }
+
+    @Test
+    public void handsOverRowsBeforeTheRestArrive() throws Exception {
+        String body = FakeBackend.ndjson(ROWS);
+        int firstLine = body.indexOf('\n') + 1;
+        server.enqueue(ndjson(body).throttleBody(firstLine, 300, TimeUnit.MILLISECONDS));
+
+        start();
+
+        // The first row is delivered alone, while the server is still "predicting" the others
+        assertEquals("rows TCS.NS", next());
+    }
+
+    @Test
+    public void passesOnTheServerDigestAndSummaryEtag() throws Exception {
+        server.enqueue(ndjson(FakeBackend.ndjson(ROWS.subList(0, 1)).replace(
+                "{\"done\": true, \"count\": 1}", "{\"done\": true, \"count\": 1, \"etag\": \"abc-1\"}"))
+                .setHeader(ResumableUploader.CONTENT_HASH_HEADER, "abc"));
+
+        start();
+
+        assertEquals("rows TCS.NS", next());
+        assertEquals("complete 1 abc abc-1", next());
+    }
+
+    @Test
+    public void reportsServerStoppingEarly() throws Exception {
+        server.enqueue(ndjson(FakeBackend.ndjson(ROWS.subList(0, 1)).replace(
+                "{\"done\": true, \"count\": 1}", "{\"done\": true, \"count\": 1, \"error\": \"yfinance down\"}")));
+
+        start();
+
+        assertEquals("rows TCS.NS", next());
+        assertEquals("complete 1 yfinance down", next());
+    }
+
+    @Test
+    public void streamCutOffBeforeSummaryIsAFailure() throws Exception {
+        String body = FakeBackend.ndjson(ROWS);
+        server.enqueue(ndjson(body.substring(0, body.lastIndexOf("{\"done\""))));
+
+        start();
+
+        String event;
+        while ((event = next()) != null && event.startsWith("rows ")) {
+            // Rows before the cut stay valid
+        }
+        assertEquals("failure " + ProtocolException.class.getSimpleName(), event);
+    }
+
+    @Test
+    public void malformedLineIsAFailure() throws Exception {
+        String body = FakeBackend.ndjson(ROWS.subList(0, 1));
+        server.enqueue(ndjson(body.replace("{\"done\"", "[\"not a row\"]\n{\"done\"")));
+
+        start();
+
+        String event;
+        while ((event = next()) != null && event.startsWith("rows ")) {
+            // Whether the row before it got out depends on buffering
+        }
+        assertEquals("failure " + ProtocolException.class.getSimpleName(), event);
+    }
+
+    @Test
+    public void readsOneShotJsonFromOlderServer() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setHeader("ETag", "\"abc-2\"")
+                .setBody(StockResponseWriter.toJson(ROWS)));
+
+        start();
+
+        assertEquals("rows TCS.NS,INFY.NS,ITC.NS", next());
+        assertEquals("complete 3 \"abc-2\"", next());
+    }
+
+    @Test
+    public void reportsHttpErrors() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(404).setBody("{\"error\": \"No stock symbols detected\"}"));
+
+        start();
+
+        assertEquals("http 404", next());
+    }
+
+    @Test
+    public void cancelSilencesTheListener() throws Exception {
+        server.enqueue(ndjson(FakeBackend.ndjson(ROWS)).setSocketPolicy(SocketPolicy.NO_RESPONSE));
+
+        BackendClient.Subscription subscription = start();
+        server.takeRequest(5, TimeUnit.SECONDS);
+        subscription.cancel();
+
+        assertNull(events.poll(500, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,276 @@
+package com.trader.stockadvisorai;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.Call;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+import okio.ByteString;
+import okio.GzipSource;
+import okio.Okio;
+
+import static org.junit.Assert.*;
+
+public class BackendClientTest {
+
+    private static final List<Holding> HOLDINGS = Collections.singletonList(new Holding("ITC.NS", 10, 400.0));
+
+    private MockWebServer server;
+    private BackendClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        client = new BackendClient(server.url("/").toString(), BackendClient.newBaseClient());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void suggestStocks_postsAmountAndReturnsBody() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"stocks\": []}"));
+
+        Result result = new Result();
+        client.suggestStocks(5000, result);
+        result.await();
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals("/suggest-stocks", request.getPath());
+        assertEquals(BackendClient.ACCEPT_JSON, request.getHeader("Accept"));
+        assertTrue(request.getBody().readUtf8().contains("5000"));
+        assertEquals("{\"stocks\": []}", result.body.get());
+    }
+
+    @Test
+    public void analyzePortfolio_reportsHttpErrors() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(404).setBody("{\"error\": \"none\"}"));
+
+        Result result = new Result();
+        client.analyzePortfolio(RequestBody.create(new byte[]{1, 2, 3}, MediaType.parse("image/jpeg")),
+                "portfolio.jpg", "content://image/1", result);
+        result.await();
+
+        assertEquals("/analyze-portfolio", server.takeRequest().getPath());
+        assertEquals(404, result.code.get().intValue());
+    }
+
+    @Test
+    public void requestsReuseOnePooledConnection() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"stocks\": []}"));
+        server.enqueue(new MockResponse().setBody("{\"stocks\": []}"));
+
+        Result first = new Result();
+        client.suggestStocks(100, first);
+        first.await();
+        Result second = new Result();
+        client.analyzePortfolio(RequestBody.create(new byte[0], MediaType.parse("image/jpeg")),
+                "portfolio.jpg", "content://image/1", second);
+        second.await();
+
+        assertEquals(0, server.takeRequest().getSequenceNumber());
+        assertEquals(1, server.takeRequest().getSequenceNumber());
+    }
+
+    @Test
+    public void identicalInFlightRequestsAreCoalesced() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"stocks\": []}").setBodyDelay(200, TimeUnit.MILLISECONDS));
+
+        Result first = new Result();
+        Result second = new Result();
+        client.suggestStocks(2500, first);
+        client.suggestStocks(2500, second);
+        first.await();
+        second.await();
+
+        assertEquals(1, server.getRequestCount());
+        assertEquals("{\"stocks\": []}", second.body.get());
+        assertEquals(0, client.inFlightCount());
+    }
+
+    @Test
+    public void cancellingLastSubscriberCancelsTheCall() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"stocks\": []}").setBodyDelay(2, TimeUnit.SECONDS));
+
+        BackendClient.Subscription subscription = client.suggestStocks(2500, new Result());
+        server.takeRequest();
+        List<Call> running = client.httpClient().dispatcher().runningCalls();
+        assertEquals(1, running.size());
+        subscription.cancel();
+
+        assertTrue(running.get(0).isCanceled());
+        assertEquals(0, client.inFlightCount());
+    }
+
+    @Test
+    public void transientErrorsAreRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody("{\"stocks\": []}"));
+
+        Result result = new Result();
+        client.suggestStocks(100, result);
+        result.await();
+
+        assertEquals(2, server.getRequestCount());
+        assertEquals("{\"stocks\": []}", result.body.get());
+    }
+
+    @Test
+    public void readTimeoutsAreRetriedWithTheSameIdempotencyKey() throws Exception {
+        client = new BackendClient(server.url("/").toString(), BackendClient.newBaseClient().newBuilder()
+                .readTimeout(200, TimeUnit.MILLISECONDS)
+                .build());
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        server.enqueue(new MockResponse().setBody("{\"stocks\": []}"));
+
+        Result result = new Result();
+        client.suggestStocks(100, result);
+        result.await();
+
+        assertEquals("{\"stocks\": []}", result.body.get());
+        String key = server.takeRequest().getHeader(RetryInterceptor.IDEMPOTENCY_KEY);
+        assertNotNull(key);
+        assertEquals(key, server.takeRequest().getHeader(RetryInterceptor.IDEMPOTENCY_KEY));
+    }
+
+    @Test
+    public void uploadsAreNotReplayedAfterTheServerAnswered() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody("{\"stocks\": []}"));
+
+        Result result = new Result();
+        client.analyzePortfolio(RequestBody.create(new byte[]{1, 2, 3}, MediaType.parse("image/jpeg")),
+                "portfolio.jpg", "content://image/1", result);
+        result.await();
+
+        // The image may already be in the server's hands, so a second upload could double-analyze it
+        assertEquals(1, server.getRequestCount());
+        assertEquals(503, result.code.get().intValue());
+    }
+
+    @Test
+    public void cborResponsesAreDecodedIntoStocks() throws Exception {
+        // {"stocks": [{"symbol": "ITC.NS", "current_price": 440}]}
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/cbor")
+                .setBody(new Buffer().write(ByteString.decodeHex(
+                        "a16673746f636b7381a26673796d626f6c664954432e4e536d63757272656e745f70726963651901b8"))));
+
+        Result result = new Result();
+        client.analyzeHoldings(HOLDINGS, result);
+        result.await();
+
+        assertEquals(BackendClient.ACCEPT, server.takeRequest().getHeader("Accept"));
+        assertEquals(1, result.stocks.get().size());
+        assertEquals("ITC.NS", result.stocks.get().get(0).symbol);
+        assertNull(result.body.get());
+    }
+
+    @Test
+    public void jsonOnlyCallbacksGetDecodedRowsAsJson() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/cbor")
+                .setBody(new Buffer().write(ByteString.decodeHex(
+                        "a16673746f636b7381a26673796d626f6c664954432e4e536d63757272656e745f70726963651901b8"))));
+
+        AtomicReference<String> json = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        client.analyzeHoldings(HOLDINGS, new BackendClient.ResponseCallback() {
+            @Override
+            public void onSuccess(String body) {
+                json.set(body);
+                done.countDown();
+            }
+
+            @Override
+            public void onHttpError(int code, String body) {
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(IOException e) {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        // A callback that only understands JSON gets the decoded rows re-serialized
+        assertEquals("ITC.NS", StockResponseParser.parse(json.get()).get(0).symbol);
+    }
+
+    @Test
+    public void largeRequestBodiesAreGzippedOnceServerAdvertisesIt() throws Exception {
+        server.enqueue(new MockResponse().setHeader("Accept-Encoding", "gzip").setBody("{\"stocks\": []}"));
+        server.enqueue(new MockResponse().setBody("{\"stocks\": []}"));
+
+        List<Holding> holdings = new ArrayList<>();
+        for (int i = 0; i < 50; i++) holdings.add(new Holding("SYMBOL" + i + ".NS", i + 1, 100.0 + i));
+
+        Result first = new Result();
+        client.analyzeHoldings(holdings, first);
+        first.await();
+        Result second = new Result();
+        client.analyzeHoldings(holdings, second);
+        second.await();
+
+        RecordedRequest plain = server.takeRequest();
+        assertNull(plain.getHeader("Content-Encoding"));
+        RecordedRequest gzipped = server.takeRequest();
+        assertEquals("gzip", gzipped.getHeader("Content-Encoding"));
+        assertTrue(gzipped.getBodySize() < plain.getBodySize());
+        String inflated = Okio.buffer(new GzipSource(gzipped.getBody())).readUtf8();
+        assertEquals(plain.getBody().readUtf8(), inflated);
+    }
+
+    private static class Result implements BackendClient.ResponseCallback {
+        final AtomicReference<String> body = new AtomicReference<>();
+        final AtomicReference<Integer> code = new AtomicReference<>();
+        final AtomicReference<List<StockResult>> stocks = new AtomicReference<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        @Override
+        public void onSuccess(String body) {
+            this.body.set(body);
+            done.countDown();
+        }
+
+        @Override
+        public void onStocks(List<StockResult> stocks) {
+            this.stocks.set(stocks);
+            done.countDown();
+        }
+
+        @Override
+        public void onHttpError(int code, String body) {
+            this.code.set(code);
+            done.countDown();
+        }
+
+        @Override
+        public void onFailure(IOException e) {
+            done.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        }
+    }
+}
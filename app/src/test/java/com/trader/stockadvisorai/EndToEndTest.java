@@ -0,0 +1,233 @@
+package com.trader.stockadvisorai;
+
+import android.app.Activity;
+import android.content.ClipData;
+import android.content.Context;
+import android.content.Intent;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.net.Uri;
+import android.os.Looper;
+import android.view.View;
+import android.widget.EditText;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+import org.robolectric.shadows.ShadowToast;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Drives the real screens against {@link FakeBackend}: from the user's action to a dashboard that
+ * shows every row. Each run reports request-to-render time and peak heap (see
+ * {@link RenderMetrics}) and fails if either blows its budget.
+ *
+ * <p>Portfolio size and budgets can be raised from the command line, e.g.
+ * {@code ./gradlew :app:testDebugUnitTest --tests '*EndToEndTest' -Pe2e.rows=20000}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = EndToEndTestApp.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class EndToEndTest {
+
+    private static final int ROWS = Integer.getInteger("e2e.rows", 5_000);
+    private static final long RENDER_BUDGET_MS = Long.getLong("e2e.renderBudgetMs", 15_000);
+    private static final long HEAP_BUDGET_BYTES = Long.getLong("e2e.heapBudgetMb", 256) * 1024 * 1024;
+    private static final long TIMEOUT_MS = 60_000;
+    private static final Duration FRAME = Duration.ofMillis(16);
+
+    private FakeBackend backend;
+
+    private void startBackend(FakeBackend fake) throws IOException {
+        backend = fake;
+        backend.start();
+        BackendClient.get().setBaseUrl(backend.url());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (backend != null) backend.shutdown();
+    }
+
+    @Test
+    public void suggestFlow_rendersLargePortfolioWithinBudget() throws Exception {
+        startBackend(new FakeBackend().portfolioSize(ROWS).latencyMs(50).seed(1));
+        EnterAmountActivity enterAmount = Robolectric.buildActivity(EnterAmountActivity.class).setup().get();
+        ((EditText) enterAmount.findViewById(R.id.amountInput)).setText("250000");
+
+        RenderMetrics metrics = RenderMetrics.start("suggest", ROWS);
+        enterAmount.findViewById(R.id.getSuggestionsBtn).performClick();
+        Intent dashboardIntent = awaitStartedActivity(enterAmount);
+        awaitRendered(launchDashboard(dashboardIntent), ROWS);
+        metrics.rendered();
+
+        assertEquals(1, backend.requestCount());
+        assertWithinBudget(metrics);
+    }
+
+    @Test
+    public void uploadBatch_rendersMergedPortfolioWithinBudget() throws Exception {
+        startBackend(new FakeBackend().portfolioSize(ROWS).latencyMs(50).seed(2));
+        UploadPortfolioActivity upload = Robolectric.buildActivity(UploadPortfolioActivity.class).setup().get();
+
+        RenderMetrics metrics = RenderMetrics.start("upload-batch", ROWS);
+        pickImages(upload, 2);
+        Intent dashboardIntent = awaitStartedActivity(upload);
+        // Every screenshot shows the same holdings, so the merge collapses them to one set
+        awaitRendered(launchDashboard(dashboardIntent), ROWS);
+        metrics.rendered();
+
+        assertEquals(2, backend.requestCount());
+        assertWithinBudget(metrics);
+    }
+
+    @Test
+    public void uploadSingle_opensDashboardBeforeStreamCompletes() throws Exception {
+        startBackend(new FakeBackend().portfolioSize(ROWS).latencyMs(50).seed(5));
+        UploadPortfolioActivity upload = Robolectric.buildActivity(UploadPortfolioActivity.class).setup().get();
+
+        RenderMetrics metrics = RenderMetrics.start("upload-stream", ROWS);
+        pickImages(upload, 1);
+        Intent dashboardIntent = awaitStartedActivity(upload);
+        ResultDashboardActivity dashboard = launchDashboard(dashboardIntent);
+        awaitRendered(dashboard, ROWS);
+        metrics.rendered();
+
+        pumpUntil("stream to complete",
+                () -> dashboard.findViewById(R.id.progressBar).getVisibility() == View.GONE);
+        assertEquals(1, backend.requestCount());
+        assertWithinBudget(metrics);
+    }
+
+    @Test
+    public void uploadBatch_showsSurvivingScreenshotsWhenSomeFail() throws Exception {
+        // Seed 3 fails two of the first four requests
+        startBackend(new FakeBackend().portfolioSize(200).errorRate(0.5).seed(3));
+        UploadPortfolioActivity upload = Robolectric.buildActivity(UploadPortfolioActivity.class).setup().get();
+
+        pickImages(upload, 4);
+        Intent dashboardIntent = awaitStartedActivity(upload);
+
+        assertEquals(4, backend.requestCount());
+        assertEquals(2, backend.failureCount());
+        assertEquals("2 screenshots could not be read", ShadowToast.getTextOfLatestToast());
+        awaitRendered(launchDashboard(dashboardIntent), 200);
+    }
+
+    @Test
+    public void uploadBatch_reportsErrorWhenEveryRequestFails() throws Exception {
+        startBackend(new FakeBackend().portfolioSize(200).errorRate(1.0));
+        UploadPortfolioActivity upload = Robolectric.buildActivity(UploadPortfolioActivity.class).setup().get();
+
+        pickImages(upload, 2);
+        pumpUntil("error toast", () -> "Error from server".equals(ShadowToast.getTextOfLatestToast()));
+
+        assertNull(shadowOf(upload).getNextStartedActivity());
+    }
+
+    @Test
+    public void dashboard_keepsRowsAcrossRecreation() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        String resultId = PortfolioStore.get(context).put(FakeBackend.portfolio(ROWS, 4));
+        ActivityController<ResultDashboardActivity> controller = Robolectric.buildActivity(
+                ResultDashboardActivity.class, ResultDashboardActivity.intentFor(context, resultId));
+        controller.setup();
+        awaitRendered(controller.get(), ROWS);
+
+        RenderMetrics metrics = RenderMetrics.start("dashboard-recreate", ROWS);
+        controller.recreate();
+        awaitRendered(controller.get(), ROWS);
+        metrics.rendered();
+
+        assertWithinBudget(metrics);
+    }
+
+    // The picker returns file URIs for freshly written PNGs, as a multi-select would
+    private static void pickImages(UploadPortfolioActivity upload, int count) throws IOException {
+        upload.findViewById(R.id.uploadBtn).performClick();
+        Intent pick = shadowOf(upload).getNextStartedActivity();
+        assertEquals(Intent.ACTION_GET_CONTENT, pick.getAction());
+
+        ClipData clip = null;
+        for (int i = 0; i < count; i++) {
+            Uri uri = Uri.fromFile(writeScreenshot(upload, i));
+            ClipData.Item item = new ClipData.Item(uri);
+            if (clip == null) {
+                clip = new ClipData("screenshots", new String[]{"image/png"}, item);
+            } else {
+                clip.addItem(item);
+            }
+        }
+        Intent result = new Intent();
+        result.setClipData(clip);
+        shadowOf(upload).receiveResult(pick, Activity.RESULT_OK, result);
+    }
+
+    private static File writeScreenshot(Activity activity, int index) throws IOException {
+        Bitmap bitmap = Bitmap.createBitmap(720, 1280, Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(Color.rgb(index * 40, 255 - index * 40, 128));
+        File file = new File(activity.getCacheDir(), "screenshot_" + index + ".png");
+        try (OutputStream out = new FileOutputStream(file)) {
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } finally {
+            bitmap.recycle();
+        }
+        return file;
+    }
+
+    private static Intent awaitStartedActivity(Activity from) throws InterruptedException {
+        Intent[] started = new Intent[1];
+        pumpUntil("dashboard to open", () -> (started[0] = shadowOf(from).getNextStartedActivity()) != null);
+        assertEquals(ResultDashboardActivity.class.getName(), started[0].getComponent().getClassName());
+        // Only the store handle crosses the screen boundary, never the rows themselves
+        assertNotNull(started[0].getStringExtra(ResultDashboardActivity.EXTRA_RESULT_ID));
+        assertEquals(1, started[0].getExtras().size());
+        return started[0];
+    }
+
+    private static ResultDashboardActivity launchDashboard(Intent intent) {
+        return Robolectric.buildActivity(ResultDashboardActivity.class, intent).setup().get();
+    }
+
+    private static void awaitRendered(ResultDashboardActivity dashboard, int rows) throws InterruptedException {
+        RecyclerView list = dashboard.findViewById(R.id.stockList);
+        pumpUntil("dashboard to render " + rows + " rows",
+                () -> list.getAdapter() != null && list.getAdapter().getItemCount() == rows && list.getChildCount() > 0);
+    }
+
+    // Runs main-thread work a frame at a time while network and worker threads make progress
+    private static void pumpUntil(String what, BooleanSupplier done) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS);
+        while (!done.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("Timed out waiting for " + what);
+            shadowOf(Looper.getMainLooper()).idleFor(FRAME);
+            Thread.sleep(2);
+        }
+    }
+
+    private static void assertWithinBudget(RenderMetrics metrics) {
+        assertTrue("request-to-render took " + metrics.elapsedMs() + " ms, budget " + RENDER_BUDGET_MS,
+                metrics.elapsedMs() <= RENDER_BUDGET_MS);
+        assertTrue("peak heap grew by " + (metrics.peakHeapDeltaBytes() >> 20) + " MB, budget "
+                        + (HEAP_BUDGET_BYTES >> 20) + " MB",
+                metrics.peakHeapDeltaBytes() <= HEAP_BUDGET_BYTES);
+    }
+}
@@ -0,0 +1,33 @@
+package com.trader.stockadvisorai;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.work.Configuration;
+
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+
+/**
+ * Replaces {@link StockAdvisorApp} under Robolectric: Firebase gets placeholder options so auth
+ * and Firestore can be created offline, and the ML Kit warm-up of the real startup graph is skipped.
+ * WorkManager initializes on demand from the configuration below.
+ */
+public class EndToEndTestApp extends Application implements Configuration.Provider {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        FirebaseApp.initializeApp(this, new FirebaseOptions.Builder()
+                .setApplicationId("1:000000000000:android:0000000000000000")
+                .setApiKey("test-api-key")
+                .setProjectId("stock-advisor-test")
+                .build());
+    }
+
+    @NonNull
+    @Override
+    public Configuration getWorkManagerConfiguration() {
+        return new Configuration.Builder().build();
+    }
+}
@@ -0,0 +1,162 @@
+package com.trader.stockadvisorai;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Stand-in for the Flask backend: answers {@code /suggest-stocks} and {@code /analyze-portfolio}
+ * with synthetic portfolios of a configurable size, after a configurable latency, failing a
+ * configurable fraction of requests with a 500. Everything else is a 404. An
+ * {@code /analyze-portfolio} request that accepts NDJSON gets the rows streamed a line at a time,
+ * throttled so the client sees them arrive in several batches.
+ *
+ * <pre>
+ * FakeBackend backend = new FakeBackend().portfolioSize(5_000).latencyMs(200).errorRate(0.1);
+ * backend.start();
+ * BackendClient.get().setBaseUrl(backend.url());
+ * </pre>
+ */
+public class FakeBackend {
+
+    private static final String[] ADVICE = {"Buy", "Hold", "Sell"};
+
+    private final MockWebServer server = new MockWebServer();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile int portfolioSize = 20;
+    private volatile long latencyMs;
+    private volatile double errorRate;
+    private volatile long seed = 42;
+    private Random errors = new Random(seed);
+
+    public FakeBackend portfolioSize(int rows) {
+        this.portfolioSize = rows;
+        return this;
+    }
+
+    public FakeBackend latencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+        return this;
+    }
+
+    /** Fraction of requests, 0 to 1, answered with a 500. */
+    public FakeBackend errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    public FakeBackend seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public void start() throws IOException {
+        errors = new Random(seed);
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) {
+                return respond(request);
+            }
+        });
+        server.start();
+    }
+
+    public void shutdown() throws IOException {
+        server.shutdown();
+    }
+
+    public String url() {
+        return server.url("/").toString();
+    }
+
+    public int requestCount() {
+        return requests.get();
+    }
+
+    public int failureCount() {
+        return failures.get();
+    }
+
+    private MockResponse respond(RecordedRequest request) {
+        String path = request.getPath() != null ? request.getPath() : "";
+        boolean known = "POST".equals(request.getMethod())
+                && (path.equals(BackendClient.SUGGEST_STOCKS) || path.equals(BackendClient.ANALYZE_PORTFOLIO));
+        if (!known) {
+            return new MockResponse().setResponseCode(404).setBody("{\"error\": \"Not found\"}");
+        }
+        requests.incrementAndGet();
+
+        MockResponse response;
+        boolean fail;
+        synchronized (this) {
+            fail = errors.nextDouble() < errorRate;
+        }
+        if (fail) {
+            failures.incrementAndGet();
+            response = new MockResponse().setResponseCode(500).setBody("{\"error\": \"Synthetic failure\"}");
+        } else if (path.equals(BackendClient.ANALYZE_PORTFOLIO) && accepts(request, AnalysisStream.MEDIA_TYPE)) {
+            String body = ndjson(portfolio(portfolioSize, seed));
+            response = new MockResponse()
+                    .setHeader("Content-Type", AnalysisStream.MEDIA_TYPE)
+                    .setBody(body)
+                    .throttleBody(Math.max(1, body.length() / 8), 20, TimeUnit.MILLISECONDS);
+        } else {
+            response = new MockResponse()
+                    .setHeader("Content-Type", "application/json")
+                    .setBody(StockResponseWriter.toJson(portfolio(portfolioSize, seed)));
+        }
+        return response.setHeadersDelay(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static boolean accepts(RecordedRequest request, String mediaType) {
+        String accept = request.getHeader("Accept");
+        return accept != null && accept.contains(mediaType);
+    }
+
+    /** The progressive wire format: one stock per line, then the summary line. */
+    public static String ndjson(List<StockResult> rows) {
+        StringWriter out = new StringWriter(rows.size() * 128);
+        try {
+            for (StockResult row : rows) {
+                JsonWriter writer = new JsonWriter(out);
+                StockResponseWriter.writeStock(row, writer);
+                writer.flush();
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out + "{\"done\": true, \"count\": " + rows.size() + "}\n";
+    }
+
+    /** Deterministic synthetic portfolio: the same size and seed always give the same rows. */
+    public static List<StockResult> portfolio(int size, long seed) {
+        Random random = new Random(seed);
+        List<StockResult> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            double price = 10 + random.nextInt(500_000) / 100.0;
+            int quantity = 1 + random.nextInt(200);
+            double yesterday = price * (0.95 + random.nextDouble() * 0.1);
+            double predicted = price * (0.9 + random.nextDouble() * 0.2);
+            rows.add(new StockResult(String.format(Locale.ROOT, "SYN%05d.NS", i), price, quantity,
+                    price * quantity, yesterday, predicted, ADVICE[random.nextInt(ADVICE.length)]));
+        }
+        return rows;
+    }
+}
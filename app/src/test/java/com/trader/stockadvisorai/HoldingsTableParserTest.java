@@ -0,0 +1,141 @@
+package com.trader.stockadvisorai;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HoldingsTableParserTest {
+
+    private static HoldingsTableParser.Line line(String text, int top, int left) {
+        return new HoldingsTableParser.Line(text, top, top + 30, left);
+    }
+
+    @Test
+    public void cellsOnOneBandJoinIntoARowLeftToRight() {
+        // OCR hands cells over column by column, with a few pixels of vertical jitter
+        List<HoldingsTableParser.Line> lines = Arrays.asList(
+                line("3850.50", 101, 500), line("1500", 199, 500),
+                line("10", 103, 300), line("25", 202, 300),
+                line("TCS", 100, 10), line("INFY", 200, 10));
+
+        HoldingsTableParser.Result result = HoldingsTableParser.parse(lines);
+
+        assertEquals(2, result.holdings.size());
+        Holding tcs = result.holdings.get(0);
+        assertEquals("TCS", tcs.symbol);
+        assertEquals(10, tcs.quantity);
+        assertEquals(3850.50, tcs.avgPrice, 1e-9);
+        assertEquals("INFY", result.holdings.get(1).symbol);
+        assertEquals(25, result.holdings.get(1).quantity);
+        assertEquals(1f, result.confidence, 0f);
+    }
+
+    @Test
+    public void readsTheTwoLineCardLayout() {
+        List<HoldingsTableParser.Line> lines = Arrays.asList(
+                line("Qty. 10 • Avg. 452.30", 100, 10),
+                line("ITC", 140, 10));
+
+        HoldingsTableParser.Result result = HoldingsTableParser.parse(lines);
+
+        assertEquals(1, result.holdings.size());
+        assertEquals("ITC", result.holdings.get(0).symbol);
+        assertEquals(10, result.holdings.get(0).quantity);
+        assertEquals(452.30, result.holdings.get(0).avgPrice, 1e-9);
+    }
+
+    @Test
+    public void headerRowDoesNotCountAsAnUnparsedHolding() {
+        List<HoldingsTableParser.Line> lines = Arrays.asList(
+                line("Instrument", 50, 10), line("Qty.", 50, 300), line("Avg.", 50, 500), line("LTP", 50, 700),
+                line("TCS", 100, 10), line("10", 100, 300), line("3,850.50", 100, 500), line("3,901.20", 100, 700),
+                line("INFY", 200, 10), line("25", 200, 300), line("1,500.00", 200, 500), line("1,480.00", 200, 700));
+
+        HoldingsTableParser.Result result = HoldingsTableParser.parse(lines);
+
+        assertEquals(2, result.holdings.size());
+        assertEquals(3850.50, result.holdings.get(0).avgPrice, 1e-9);
+        assertEquals(1f, result.confidence, 0f);
+    }
+
+    @Test
+    public void cardProfitAndChangeAreNotReadAsQuantity() {
+        // Kite-style card: quantity line, then symbol with P&L, then invested / LTP figures
+        List<HoldingsTableParser.Line> lines = Arrays.asList(
+                line("Qty. 10 • Avg. 452.30", 100, 10), line("+12.50%", 100, 600),
+                line("ITC", 140, 10), line("+1,234.00", 140, 600),
+                line("Invested 4,523.00", 180, 10), line("LTP 575.70 (-0.41%)", 180, 600),
+                line("Qty. 5 • Avg. 3,800.00", 240, 10), line("-2.10%", 240, 600),
+                line("TCS", 280, 10), line("-400.00", 280, 600),
+                line("Invested 19,000.00", 320, 10), line("LTP 3,720.00", 320, 600));
+
+        HoldingsTableParser.Result result = HoldingsTableParser.parse(lines);
+
+        assertEquals(2, result.holdings.size());
+        Holding itc = result.holdings.get(0);
+        assertEquals("ITC", itc.symbol);
+        assertEquals(10, itc.quantity);
+        assertEquals(452.30, itc.avgPrice, 1e-9);
+        Holding tcs = result.holdings.get(1);
+        assertEquals("TCS", tcs.symbol);
+        assertEquals(5, tcs.quantity);
+        assertEquals(3800.0, tcs.avgPrice, 1e-9);
+        assertEquals(1f, result.confidence, 0f);
+    }
+
+    @Test
+    public void signedProfitAloneIsNoQuantity() {
+        HoldingsTableParser.Result result = HoldingsTableParser.parse(Arrays.asList(
+                line("ITC +1,234.00", 100, 10)));
+
+        // Nothing usable was read, so the screenshot goes to the backend instead
+        assertTrue(result.holdings.isEmpty());
+        assertTrue(result.confidence < PortfolioTextExtractor.MIN_CONFIDENCE);
+    }
+
+    @Test
+    public void thousandsSeparatorsAreNotDecimalPoints() {
+        HoldingsTableParser.Result result = HoldingsTableParser.parse(Arrays.asList(
+                line("RELIANCE 1,200 ₹2,450.75", 100, 10)));
+
+        Holding reliance = result.holdings.get(0);
+        assertEquals(1200, reliance.quantity);
+        assertEquals(2450.75, reliance.avgPrice, 1e-9);
+    }
+
+    @Test
+    public void duplicateSymbolsMergeWithoutLoweringConfidence() {
+        HoldingsTableParser.Result result = HoldingsTableParser.parse(Arrays.asList(
+                line("ITC 10 400", 100, 10),
+                line("ITC 20 430", 200, 10)));
+
+        assertEquals(1, result.holdings.size());
+        Holding itc = result.holdings.get(0);
+        assertEquals(30, itc.quantity);
+        assertEquals(420.0, itc.avgPrice, 1e-9);
+        // Both rows were read; merging them is not a parse failure
+        assertEquals(1f, result.confidence, 0f);
+    }
+
+    @Test
+    public void symbolsWithoutQuantityLowerConfidence() {
+        HoldingsTableParser.Result result = HoldingsTableParser.parse(Arrays.asList(
+                line("TCS 10 3850", 100, 10),
+                line("HDFCBANK", 200, 10)));
+
+        assertEquals(1, result.holdings.size());
+        assertEquals(0.5f, result.confidence, 0f);
+    }
+
+    @Test
+    public void labelsAreNotSymbols() {
+        HoldingsTableParser.Result result = HoldingsTableParser.parse(Arrays.asList(
+                line("TOTAL 5 100", 100, 10)));
+
+        assertTrue(result.holdings.isEmpty());
+        assertEquals(0f, result.confidence, 0f);
+    }
+}
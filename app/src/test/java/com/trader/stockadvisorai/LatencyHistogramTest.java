@@ -0,0 +1,68 @@
+package com.trader.stockadvisorai;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void fastCallsShareTheFirstBucket() {
+        assertEquals(0, LatencyHistogram.bucketFor(0));
+        assertEquals(0, LatencyHistogram.bucketFor(100));
+        assertEquals(1, LatencyHistogram.bucketFor(101));
+    }
+
+    @Test
+    public void slowCallsAreClampedToTheLastBucket() {
+        int last = LatencyHistogram.bucketFor(Long.MAX_VALUE);
+
+        assertEquals(last, LatencyHistogram.bucketFor(3_600_000_000L));
+        assertTrue(LatencyHistogram.upperBoundMicros(last) > 90_000_000);
+    }
+
+    @Test
+    public void everyValueFallsInsideItsBucket() {
+        int last = LatencyHistogram.bucketFor(Long.MAX_VALUE);
+        int previous = 0;
+        for (long micros = 101; micros < LatencyHistogram.upperBoundMicros(last - 1); micros += 1 + micros / 50) {
+            int bucket = LatencyHistogram.bucketFor(micros);
+            assertTrue(bucket >= previous);
+            assertTrue(micros <= LatencyHistogram.upperBoundMicros(bucket));
+            assertTrue(micros >= LatencyHistogram.upperBoundMicros(bucket - 1) * (1 - 1e-9));
+            previous = bucket;
+        }
+    }
+
+    @Test
+    public void percentilesAreWithinOneBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 100; ms++) histogram.record(ms * 1000L);
+
+        assertEquals(100, histogram.count());
+        double p50 = histogram.percentileMillis(50);
+        assertTrue(p50 >= 50 && p50 <= 50 * 1.19);
+        double p99 = histogram.percentileMillis(99);
+        assertTrue(p99 >= 99 && p99 <= 99 * 1.19);
+        double max = histogram.percentileMillis(100);
+        assertTrue(max >= 100 && max <= 100 * 1.19);
+    }
+
+    @Test
+    public void percentileOfOneOutlierIsTheOutlier() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) histogram.record(2_000);
+        histogram.record(5_000_000);
+
+        assertTrue(histogram.percentileMillis(99) < 2 * 1.19);
+        assertTrue(histogram.percentileMillis(100) >= 5_000);
+    }
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentileMillis(95), 0);
+    }
+}
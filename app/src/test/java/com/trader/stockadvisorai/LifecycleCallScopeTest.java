@@ -0,0 +1,119 @@
+package com.trader.stockadvisorai;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class)
+public class LifecycleCallScopeTest {
+
+    private static class Owner implements LifecycleOwner {
+        final LifecycleRegistry registry = new LifecycleRegistry(this);
+
+        @NonNull
+        @Override
+        public Lifecycle getLifecycle() {
+            return registry;
+        }
+    }
+
+    /** Stands in for a backend call: remembers its callback and counts cancellations. */
+    private static class FakeCall implements LifecycleCallScope.Starter, BackendClient.Subscription {
+        final AtomicInteger cancels = new AtomicInteger();
+        BackendClient.ResponseCallback callback;
+
+        @Override
+        public BackendClient.Subscription start(BackendClient.ResponseCallback callback) {
+            this.callback = callback;
+            return this;
+        }
+
+        @Override
+        public void cancel() {
+            cancels.incrementAndGet();
+        }
+    }
+
+    private static final BackendClient.ResponseCallback IGNORE = new BackendClient.ResponseCallback() {
+        @Override
+        public void onSuccess(String body) {}
+
+        @Override
+        public void onHttpError(int code, String body) {}
+
+        @Override
+        public void onFailure(IOException e) {}
+    };
+
+    private Owner owner;
+    private LifecycleCallScope scope;
+
+    @Before
+    public void setUp() {
+        owner = new Owner();
+        owner.registry.setCurrentState(Lifecycle.State.RESUMED);
+        scope = new LifecycleCallScope(owner);
+    }
+
+    @Test
+    public void answeredCallsStopBeingTracked() {
+        FakeCall success = new FakeCall();
+        FakeCall failure = new FakeCall();
+        scope.run(success, IGNORE);
+        scope.run(failure, IGNORE);
+        assertEquals(2, scope.trackedCount());
+
+        success.callback.onSuccess("{\"stocks\": []}");
+        failure.callback.onFailure(new IOException("offline"));
+
+        assertEquals(0, scope.trackedCount());
+    }
+
+    @Test
+    public void answerBeforeStartReturnsIsNotLeaked() {
+        scope.run(callback -> {
+            callback.onHttpError(500, "");
+            return () -> {};
+        }, IGNORE);
+
+        assertEquals(0, scope.trackedCount());
+    }
+
+    @Test
+    public void cancelledCallsStopBeingTracked() {
+        FakeCall call = new FakeCall();
+        scope.run(call, IGNORE).cancel();
+
+        assertEquals(1, call.cancels.get());
+        assertEquals(0, scope.trackedCount());
+    }
+
+    @Test
+    public void destroyCancelsOnlyCallsStillRunning() {
+        FakeCall answered = new FakeCall();
+        FakeCall running = new FakeCall();
+        scope.run(answered, IGNORE);
+        scope.run(running, IGNORE);
+        answered.callback.onSuccess("{\"stocks\": []}");
+
+        owner.registry.setCurrentState(Lifecycle.State.DESTROYED);
+
+        assertEquals(0, answered.cancels.get());
+        assertEquals(1, running.cancels.get());
+    }
+}
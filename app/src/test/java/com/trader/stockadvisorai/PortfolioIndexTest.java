@@ -0,0 +1,79 @@
+package com.trader.stockadvisorai;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PortfolioIndexTest {
+
+    private static final List<StockResult> ROWS = Arrays.asList(
+            new StockResult("TCS.NS", 3850, 2, 7700, 3800, 4235, "Buy"),      // +10%
+            new StockResult("INFY.NS", 1500, 10, 15000, 1490, 1350, "Sell"),  // -10%
+            new StockResult("TATAMOTORS.NS", 950, 5, 4750, 940, 997.5, "Hold"), // +5%
+            new StockResult("ITC.NS", 430, 50, 21500, 428, 0, null),          // no prediction
+            new StockResult("tatasteel.ns", 150, 100, 15000, 149, 165, "Buy")); // +10%
+
+    private final PortfolioIndex index = PortfolioIndex.build(PortfolioSnapshot.of("id", ROWS, new SymbolTable()));
+    private final int[] out = new int[ROWS.size()];
+
+    private String[] query(String prefix, String advice, PortfolioIndex.Sort sort, boolean descending) {
+        int count = index.query(prefix, advice, sort, descending, out);
+        String[] symbols = new String[count];
+        for (int i = 0; i < count; i++) symbols[i] = ROWS.get(out[i]).symbol;
+        return symbols;
+    }
+
+    @Test
+    public void emptyQueryKeepsServerOrder() {
+        assertArrayEquals(new String[]{"TCS.NS", "INFY.NS", "TATAMOTORS.NS", "ITC.NS", "tatasteel.ns"},
+                query("", null, PortfolioIndex.Sort.SERVER, false));
+    }
+
+    @Test
+    public void prefixMatchIsCaseInsensitive() {
+        assertArrayEquals(new String[]{"TATAMOTORS.NS", "tatasteel.ns"},
+                query("tata", null, PortfolioIndex.Sort.SYMBOL, false));
+        assertArrayEquals(new String[]{"TCS.NS", "TATAMOTORS.NS", "tatasteel.ns"},
+                query("T", null, PortfolioIndex.Sort.SERVER, false));
+        assertEquals(0, query("ZZ", null, PortfolioIndex.Sort.SERVER, false).length);
+    }
+
+    @Test
+    public void sortsByEachKey() {
+        assertArrayEquals(new String[]{"tatasteel.ns", "ITC.NS", "TATAMOTORS.NS", "INFY.NS", "TCS.NS"},
+                query("", null, PortfolioIndex.Sort.PRICE, false));
+        assertArrayEquals(new String[]{"ITC.NS", "INFY.NS", "TATAMOTORS.NS", "TCS.NS", "tatasteel.ns"},
+                query("", null, PortfolioIndex.Sort.UPSIDE, false));
+        assertArrayEquals(new String[]{"ITC.NS", "tatasteel.ns", "INFY.NS", "TCS.NS", "TATAMOTORS.NS"},
+                query("", null, PortfolioIndex.Sort.INVESTED, true));
+        assertArrayEquals(new String[]{"tatasteel.ns", "TCS.NS", "TATAMOTORS.NS", "ITC.NS", "INFY.NS"},
+                query("", null, PortfolioIndex.Sort.ADVICE, false));
+    }
+
+    @Test
+    public void combinesPrefixAdviceAndSort() {
+        assertArrayEquals(new String[]{"TCS.NS", "tatasteel.ns"},
+                query("t", "Buy", PortfolioIndex.Sort.PRICE, true));
+        assertEquals(0, query("", "Strong Buy", PortfolioIndex.Sort.SERVER, false).length);
+    }
+
+    @Test
+    public void listsDistinctAdviceLabels() {
+        assertArrayEquals(new String[]{"Buy", "Hold", StockResult.NO_ADVICE, "Sell"}, index.adviceLabels());
+    }
+
+    @Test
+    public void priceUpdateReordersPriceSortOnly() {
+        PortfolioSnapshot moved = index.snapshot().withPrices(Collections.singletonMap("INFY.NS", 100.0));
+        PortfolioIndex updated = index.withSnapshot(moved);
+        int count = updated.query("", null, PortfolioIndex.Sort.PRICE, false, out);
+
+        assertTrue(updated.covers(moved));
+        assertEquals(5, count);
+        assertEquals("INFY.NS", ROWS.get(out[0]).symbol);
+    }
+}
@@ -0,0 +1,99 @@
+package com.trader.stockadvisorai;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PortfolioSnapshotTest {
+
+    private static final List<StockResult> ROWS = Arrays.asList(
+            new StockResult("TCS.NS", 3850.5, 2, 7701, 3800, 3900, "Buy"),
+            new StockResult("INFY.NS", 1500, 10, 15000, 1490, 1480, "Sell"),
+            new StockResult("RELIANCE.NS", 2900, 0, 0, 0, 0, null));
+
+    @Test
+    public void roundTripsRows() {
+        PortfolioSnapshot snapshot = PortfolioSnapshot.of("id", ROWS, new SymbolTable());
+
+        assertEquals(3, snapshot.size());
+        assertEquals(ROWS, snapshot.rows());
+        for (int i = 0; i < ROWS.size(); i++) {
+            assertTrue(snapshot.matches(i, ROWS.get(i)));
+        }
+    }
+
+    @Test
+    public void symbolsAndAdviceAreInternedOnce() {
+        SymbolTable table = new SymbolTable();
+        PortfolioSnapshot.of("a", ROWS, table);
+        PortfolioSnapshot.of("b", ROWS, table);
+
+        // 3 tickers + "Buy", "Sell", "N/A"
+        assertEquals(6, table.size());
+    }
+
+    @Test
+    public void idDependsOnlyOnContent() throws IOException {
+        String id = PortfolioSnapshot.idFor(ROWS);
+
+        assertEquals(id, PortfolioSnapshot.idFor(StockResponseParser.parse(StockResponseWriter.toJson(ROWS))));
+        assertNotEquals(id, PortfolioSnapshot.idFor(ROWS.subList(0, 2)));
+        assertNotEquals(id, PortfolioSnapshot.idFor(Arrays.asList(
+                ROWS.get(0).withCurrentPrice(1), ROWS.get(1), ROWS.get(2))));
+    }
+
+    @Test
+    public void priceUpdateCopiesOnlyThePriceColumn() {
+        PortfolioSnapshot snapshot = PortfolioSnapshot.of("id", ROWS, new SymbolTable());
+        PortfolioSnapshot updated = snapshot.withPrices(Collections.singletonMap("INFY.NS", 1510.0));
+
+        assertNotSame(snapshot, updated);
+        assertEquals(1510.0, updated.currentPrice(1), 0);
+        assertEquals(1500.0, snapshot.currentPrice(1), 0);
+        assertSame(snapshot.quantity, updated.quantity);
+        assertSame(snapshot.symbolIds, updated.symbolIds);
+        assertTrue(updated.matches(0, ROWS.get(0)));
+        assertFalse(updated.matches(1, ROWS.get(1)));
+    }
+
+    @Test
+    public void unchangedPricesReturnSameSnapshot() {
+        PortfolioSnapshot snapshot = PortfolioSnapshot.of("id", ROWS, new SymbolTable());
+
+        assertSame(snapshot, snapshot.withPrices(Collections.singletonMap("TCS.NS", 3850.5)));
+        assertSame(snapshot, snapshot.withPrices(Collections.singletonMap("WIPRO.NS", 1.0)));
+    }
+
+    @Test
+    public void streamedRowsGrowAPendingSnapshot() {
+        SymbolTable table = new SymbolTable();
+        PortfolioSnapshot pending = PortfolioSnapshot.pending("id", table);
+        PortfolioSnapshot first = pending.append(ROWS.subList(0, 2));
+        PortfolioSnapshot all = first.append(ROWS.subList(2, 3));
+
+        assertTrue(all.isStreaming());
+        assertFalse(all.isComplete());
+        assertEquals(ROWS, all.rows());
+        assertTrue(all.startsWith(first));
+        assertFalse(first.startsWith(all));
+        assertTrue(all.completed().isComplete());
+        assertEquals(PortfolioSnapshot.State.TRUNCATED, first.truncated().state());
+        assertFalse(first.truncated().isComplete());
+        assertEquals(PortfolioSnapshot.of("id", ROWS, table).rows(), all.completed().rows());
+    }
+
+    @Test
+    public void startsWithComparesRowsInOrder() {
+        SymbolTable table = new SymbolTable();
+        PortfolioSnapshot snapshot = PortfolioSnapshot.of("id", ROWS, table);
+        PortfolioSnapshot reordered = PortfolioSnapshot.of("id", Arrays.asList(ROWS.get(1), ROWS.get(0)), table);
+
+        assertFalse(snapshot.startsWith(reordered));
+        assertFalse(snapshot.startsWith(PortfolioSnapshot.of("id", ROWS.subList(0, 2), new SymbolTable())));
+    }
+}
@@ -0,0 +1,143 @@
+package com.trader.stockadvisorai;
+
+import android.app.Application;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class)
+public class PortfolioStoreTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File dir;
+    private PortfolioStore store;
+
+    @Before
+    public void setUp() {
+        dir = new File(temp.getRoot(), "portfolios");
+        store = new PortfolioStore(dir);
+    }
+
+    /** {@code count} rows whose symbols start with {@code name}, so every call is a distinct result. */
+    private static List<StockResult> rows(String name, int count) {
+        List<StockResult> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new StockResult(name + i + ".NS", 100 + i, 1, 100 + i, 99, 101, "Buy"));
+        }
+        return rows;
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedBeyondMaxResults() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < PortfolioStore.MAX_RESULTS; i++) ids.add(store.put(rows("R" + i + "X", 1)));
+        // Touching the oldest result makes the second one the least recently used
+        assertNotNull(store.get(ids.get(0)));
+
+        store.put(rows("NEW", 1));
+
+        assertNotNull(store.get(ids.get(0)));
+        assertNull(store.get(ids.get(1)));
+    }
+
+    @Test
+    public void evictsOldestWhenRowBudgetIsExceeded() {
+        int half = PortfolioStore.MAX_ROWS / 2 + 1;
+        String first = store.put(rows("A", half));
+        String second = store.put(rows("B", half));
+
+        assertNull(store.get(first));
+        assertNotNull(store.get(second));
+    }
+
+    @Test
+    public void keepsResultsAScreenIsObserving() {
+        String watched = store.put(rows("WATCHED", 1));
+        LiveData<PortfolioSnapshot> live = store.observe(watched);
+        live.observeForever(snapshot -> {});
+
+        for (int i = 0; i < PortfolioStore.MAX_RESULTS; i++) store.put(rows("R" + i + "X", 1));
+
+        assertNotNull(store.get(watched));
+    }
+
+    @Test
+    public void unknownIdsAreForgottenWhenTheirScreenGoesAway() {
+        Observer<PortfolioSnapshot> screen = snapshot -> {};
+        LiveData<PortfolioSnapshot> live = store.observe("never-loaded");
+        live.observeForever(screen);
+        assertEquals(1, store.observedCount());
+
+        live.removeObserver(screen);
+
+        assertEquals(0, store.observedCount());
+    }
+
+    @Test
+    public void resultsNobodyObservesAnyMoreCanBeEvicted() {
+        String watched = store.put(rows("WATCHED", 1));
+        Observer<PortfolioSnapshot> screen = snapshot -> {};
+        LiveData<PortfolioSnapshot> live = store.observe(watched);
+        live.observeForever(screen);
+        live.removeObserver(screen);
+
+        for (int i = 0; i < PortfolioStore.MAX_RESULTS; i++) store.put(rows("R" + i + "X", 1));
+
+        assertNull(store.get(watched));
+    }
+
+    @Test
+    public void aScreenThatComesBackSeesUpdatesItMissed() {
+        String id = store.put(rows("BACK", 1));
+        List<PortfolioSnapshot> seen = new ArrayList<>();
+        Observer<PortfolioSnapshot> screen = seen::add;
+        LiveData<PortfolioSnapshot> live = store.observe(id);
+        live.observeForever(screen);
+        live.removeObserver(screen);
+
+        store.updatePrices(id, Collections.singletonMap("BACK0.NS", 250.0));
+        live.observeForever(screen);
+        store.updatePrices(id, Collections.singletonMap("BACK0.NS", 260.0));
+
+        assertEquals(260.0, seen.get(seen.size() - 1).currentPrice[0], 0);
+        assertEquals(250.0, seen.get(seen.size() - 2).currentPrice[0], 0);
+    }
+
+    @Test
+    public void evictedResultsReloadFromDisk() throws Exception {
+        List<StockResult> rows = rows("DISK", 3);
+        String id = store.put(rows);
+        File file = new File(dir, id + ".json");
+        for (int i = 0; i < 100 && !file.exists(); i++) Thread.sleep(20);
+        assertTrue(file.exists());
+
+        // A fresh store is what a screen restored after process death sees
+        PortfolioSnapshot reloaded = new PortfolioStore(dir).load(id);
+
+        assertNotNull(reloaded);
+        assertEquals(rows, reloaded.rows());
+    }
+
+    @Test
+    public void unknownResultsLoadAsNull() {
+        assertNull(store.load("missing"));
+    }
+}
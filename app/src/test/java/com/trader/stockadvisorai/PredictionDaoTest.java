@@ -0,0 +1,91 @@
+package com.trader.stockadvisorai;
+
+import android.app.Application;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/** The local history reads behind the history screen's symbol filter, on an in-memory database. */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class)
+public class PredictionDaoTest {
+
+    private PredictionDatabase database;
+    private PredictionDao dao;
+
+    @Before
+    public void setUp() {
+        database = Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(), PredictionDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        dao = database.predictionDao();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    private void record(String uid, String symbol, long... timestamps) {
+        List<PredictionEntity> entries = new ArrayList<>();
+        for (long timestamp : timestamps) {
+            StockResult stock = new StockResult(symbol, 100 + timestamp, 1, 100, 99, 101, "Buy");
+            entries.add(PredictionEntity.from("response" + timestamp, stock, uid, timestamp));
+        }
+        dao.insertAll(entries);
+    }
+
+    private static List<Long> timestamps(List<PredictionEntity> rows) {
+        List<Long> timestamps = new ArrayList<>(rows.size());
+        for (PredictionEntity row : rows) timestamps.add(row.timestamp);
+        return timestamps;
+    }
+
+    @Test
+    public void recentForSymbolIsNewestFirstAndLimited() {
+        record("me", "TCS.NS", 10, 30, 20, 40);
+        record("me", "INFY.NS", 50);
+
+        List<PredictionEntity> rows = dao.recentForSymbol("me", "TCS.NS", 3);
+
+        assertEquals(Arrays.asList(40L, 30L, 20L), timestamps(rows));
+        for (PredictionEntity row : rows) assertEquals("TCS.NS", row.symbol);
+    }
+
+    @Test
+    public void otherUsersOnTheDeviceAreNotShown() {
+        record("me", "TCS.NS", 10);
+        record("someone-else", "TCS.NS", 20);
+
+        assertEquals(Arrays.asList(10L), timestamps(dao.recentForSymbol("me", "TCS.NS", 30)));
+    }
+
+    @Test
+    public void forSymbolBetweenIncludesBothEnds() {
+        record("me", "TCS.NS", 10, 20, 30, 40);
+
+        List<PredictionEntity> rows = dao.forSymbolBetween("me", "TCS.NS", 20, 30);
+
+        assertEquals(Arrays.asList(30L, 20L), timestamps(rows));
+    }
+
+    @Test
+    public void unknownSymbolHasNoHistory() {
+        record("me", "TCS.NS", 10);
+
+        assertTrue(dao.recentForSymbol("me", "ITC.NS", 30).isEmpty());
+    }
+}
@@ -0,0 +1,35 @@
+package com.trader.stockadvisorai;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PredictionEntityTest {
+
+    private static final StockResult TCS = new StockResult("TCS.NS", 3850.5, 2, 7701, 3800, 3900, "Buy");
+
+    @Test
+    public void sameResponseMapsToSameDocument() {
+        PredictionEntity first = PredictionEntity.from("abc123", TCS, "user1", 1_000L);
+        PredictionEntity replay = PredictionEntity.from("abc123", TCS, "user1", 9_000L);
+
+        assertEquals(first.docId, replay.docId);
+        assertEquals("abc123_user1_TCS.NS", first.docId);
+    }
+
+    @Test
+    public void differentResponsesOrUsersGetDifferentDocuments() {
+        String base = PredictionEntity.from("abc123", TCS, "user1", 0).docId;
+
+        assertNotEquals(base, PredictionEntity.from("def456", TCS, "user1", 0).docId);
+        assertNotEquals(base, PredictionEntity.from("abc123", TCS, "user2", 0).docId);
+        assertNotEquals(base, PredictionEntity.from("abc123", TCS, null, 0).docId);
+    }
+
+    @Test
+    public void docIdNeverContainsPathSeparators() {
+        StockResult odd = new StockResult("BRK/B", 1, 0, 0, 0, 0, null);
+
+        assertFalse(PredictionEntity.from("abc123", odd, "user1", 0).docId.contains("/"));
+    }
+}
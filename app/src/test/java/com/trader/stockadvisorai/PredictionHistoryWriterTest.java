@@ -0,0 +1,112 @@
+package com.trader.stockadvisorai;
+
+import android.app.Application;
+import android.os.Looper;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class)
+public class PredictionHistoryWriterTest {
+
+    /** Records every commit by the first docId of its chunk; fails a chunk's first {@code failures} attempts. */
+    private static class FakeCommitter implements PredictionHistoryWriter.BatchCommitter {
+        final List<Integer> sizes = new ArrayList<>();
+        final Map<String, Integer> attempts = new HashMap<>();
+        int failures;
+
+        @Override
+        public Task<Void> commit(List<String> docIds, List<Map<String, Object>> chunk) {
+            sizes.add(chunk.size());
+            int attempt = attempts.merge(docIds.get(0), 1, Integer::sum);
+            if (attempt <= failures) return Tasks.forException(new IOException("unavailable"));
+            return Tasks.forResult(null);
+        }
+    }
+
+    private static class RecordingListener implements PredictionHistoryWriter.Listener {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onBatchCommitted(int batchIndex, int size) {
+            events.add("committed " + batchIndex + " " + size);
+        }
+
+        @Override
+        public void onBatchFailed(int batchIndex, int size, Exception e) {
+            events.add("failed " + batchIndex + " " + size);
+        }
+    }
+
+    private final FakeCommitter committer = new FakeCommitter();
+    private final RecordingListener listener = new RecordingListener();
+
+    private void write(int count) {
+        List<String> docIds = new ArrayList<>(count);
+        List<Map<String, Object>> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            docIds.add("doc" + i);
+            entries.add(Collections.singletonMap("symbol", "S" + i + ".NS"));
+        }
+        new PredictionHistoryWriter(committer).write(docIds, entries, listener);
+        // Task listeners and retries run on the main looper; a minute covers every backoff
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMinutes(1));
+    }
+
+    @Test
+    public void splitsEntriesIntoBatchesOfFiveHundred() {
+        write(2 * PredictionHistoryWriter.MAX_BATCH_SIZE + 1);
+
+        assertEquals(Arrays.asList(500, 500, 1), committer.sizes);
+        assertEquals(Arrays.asList("committed 0 500", "committed 1 500", "committed 2 1"), listener.events);
+    }
+
+    @Test
+    public void retriesAFailedBatch() {
+        committer.failures = PredictionHistoryWriter.MAX_ATTEMPTS - 1;
+
+        write(3);
+
+        assertEquals(PredictionHistoryWriter.MAX_ATTEMPTS, committer.attempts.get("doc0").intValue());
+        assertEquals(Collections.singletonList("committed 0 3"), listener.events);
+    }
+
+    @Test
+    public void givesUpAfterTheLastAttempt() {
+        committer.failures = Integer.MAX_VALUE;
+
+        write(3);
+
+        assertEquals(PredictionHistoryWriter.MAX_ATTEMPTS, committer.attempts.get("doc0").intValue());
+        assertEquals(Collections.singletonList("failed 0 3"), listener.events);
+    }
+
+    @Test
+    public void onlyTheFailedBatchIsRetried() {
+        committer.failures = 1;
+        committer.attempts.put("doc0", 1);  // the first batch already had its failure
+
+        write(PredictionHistoryWriter.MAX_BATCH_SIZE + 1);
+
+        assertEquals(Arrays.asList(500, 1, 1), committer.sizes);
+        assertEquals(Arrays.asList("committed 0 500", "committed 1 1"), listener.events);
+    }
+}
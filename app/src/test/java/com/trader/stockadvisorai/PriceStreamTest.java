@@ -0,0 +1,116 @@
+package com.trader.stockadvisorai;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.*;
+
+/** MockWebServer stands in for the backend's SSE tick server. */
+public class PriceStreamTest {
+
+    private MockWebServer server;
+    private final BlockingQueue<String> ticks = new LinkedBlockingQueue<>();
+    private PriceStream stream;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        stream = new PriceStream(new OkHttpClient(), server.url(BackendClient.PRICE_STREAM),
+                (symbol, price) -> ticks.add(symbol + "=" + price));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        stream.stop();
+        server.shutdown();
+    }
+
+    private static MockResponse events(String body) {
+        return new MockResponse()
+                .setHeader("Content-Type", "text/event-stream")
+                .setBody(body);
+    }
+
+    /** Headers arrive but the body stalls, like a quiet market between ticks. */
+    private static MockResponse openStream() {
+        return events(": ping\n\n").setBodyDelay(3, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void deliversTicksAndSkipsCommentsAndMalformedEvents() throws Exception {
+        server.enqueue(events("retry: 10\n\n"
+                + ": ping\n\n"
+                + "id: 1\ndata: {\"symbol\": \"TCS.NS\", \"price\": 3850.5}\n\n"
+                + "data: not json\n\n"
+                + "id: 2\ndata: {\"symbol\": \"INFY.NS\",\ndata: \"price\": 1500}\n\n"));
+
+        stream.start(Arrays.asList("TCS.NS", "INFY.NS"));
+
+        assertEquals("TCS.NS=3850.5", ticks.poll(5, TimeUnit.SECONDS));
+        assertEquals("INFY.NS=1500.0", ticks.poll(5, TimeUnit.SECONDS));
+        RecordedRequest request = server.takeRequest();
+        assertEquals("TCS.NS,INFY.NS", request.getRequestUrl().queryParameter("symbols"));
+        assertEquals("text/event-stream", request.getHeader("Accept"));
+    }
+
+    @Test
+    public void reconnectsAfterDropWithSameSymbolsAndLastEventId() throws Exception {
+        server.enqueue(events("retry: 10\n\nid: 7\ndata: {\"symbol\": \"ITC.NS\", \"price\": 440}\n\n")
+                .setSocketPolicy(SocketPolicy.DISCONNECT_AT_END));
+        server.enqueue(events("id: 8\ndata: {\"symbol\": \"ITC.NS\", \"price\": 441}\n\n"));
+
+        stream.start(Collections.singletonList("ITC.NS"));
+
+        assertEquals("ITC.NS=440.0", ticks.poll(5, TimeUnit.SECONDS));
+        assertEquals("ITC.NS=441.0", ticks.poll(5, TimeUnit.SECONDS));
+        assertNull(server.takeRequest().getHeader("Last-Event-ID"));
+        RecordedRequest resubscribe = server.takeRequest(5, TimeUnit.SECONDS);
+        assertEquals("7", resubscribe.getHeader("Last-Event-ID"));
+        assertEquals("ITC.NS", resubscribe.getRequestUrl().queryParameter("symbols"));
+    }
+
+    @Test
+    public void changingSymbolsResubscribesImmediately() throws Exception {
+        server.enqueue(openStream());
+        server.enqueue(events("data: {\"symbol\": \"SBIN.NS\", \"price\": 800}\n\n"));
+
+        stream.start(Collections.singletonList("ITC.NS"));
+        assertEquals("ITC.NS", server.takeRequest(5, TimeUnit.SECONDS).getRequestUrl().queryParameter("symbols"));
+
+        List<String> updated = Arrays.asList("ITC.NS", "SBIN.NS");
+        stream.start(updated);
+
+        RecordedRequest resubscribe = server.takeRequest(2, TimeUnit.SECONDS);
+        assertNotNull(resubscribe);
+        assertEquals("ITC.NS,SBIN.NS", resubscribe.getRequestUrl().queryParameter("symbols"));
+        assertEquals("SBIN.NS=800.0", ticks.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void stopEndsTheStream() throws Exception {
+        server.enqueue(openStream());
+
+        stream.start(Collections.singletonList("ITC.NS"));
+        server.takeRequest(5, TimeUnit.SECONDS);
+        stream.stop();
+
+        assertFalse(stream.isRunning());
+        assertNull(server.takeRequest(1, TimeUnit.SECONDS));
+    }
+}
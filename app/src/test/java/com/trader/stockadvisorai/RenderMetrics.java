@@ -0,0 +1,90 @@
+package com.trader.stockadvisorai;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Measures one end-to-end run: wall time from the user's action to the rendered dashboard, and
+ * peak heap sampled on a background thread meanwhile. Each result is printed and appended to
+ * build/reports/e2e/render.txt so runs on different machines can be compared.
+ */
+final class RenderMetrics {
+
+    private static final long SAMPLE_INTERVAL_MS = 2;
+
+    private final String name;
+    private final int rows;
+    private final Thread sampler;
+    private volatile boolean sampling = true;
+    private volatile long peakHeap;
+    private final long baselineHeap;
+    private final long startNanos;
+    private long elapsedMs = -1;
+
+    private RenderMetrics(String name, int rows) {
+        this.name = name;
+        this.rows = rows;
+        System.gc();
+        baselineHeap = usedHeap();
+        peakHeap = baselineHeap;
+        sampler = new Thread(() -> {
+            while (sampling) {
+                peakHeap = Math.max(peakHeap, usedHeap());
+                try {
+                    Thread.sleep(SAMPLE_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "heap-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+        startNanos = System.nanoTime();
+    }
+
+    static RenderMetrics start(String name, int rows) {
+        return new RenderMetrics(name, rows);
+    }
+
+    /** Call once the dashboard shows every row. */
+    RenderMetrics rendered() throws InterruptedException {
+        elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+        sampling = false;
+        sampler.join();
+        peakHeap = Math.max(peakHeap, usedHeap());
+        report();
+        return this;
+    }
+
+    long elapsedMs() {
+        return elapsedMs;
+    }
+
+    /** Peak heap above what was in use when the run started. */
+    long peakHeapDeltaBytes() {
+        return peakHeap - baselineHeap;
+    }
+
+    private void report() {
+        String line = String.format(Locale.ROOT, "%s rows=%d requestToRenderMs=%d peakHeapMb=%.1f peakHeapDeltaMb=%.1f",
+                name, rows, elapsedMs, peakHeap / 1048576.0, peakHeapDeltaBytes() / 1048576.0);
+        System.out.println("[e2e] " + line);
+
+        File dir = new File("build/reports/e2e");
+        if (!dir.exists() && !dir.mkdirs()) return;
+        try (Writer out = new FileWriter(new File(dir, "render.txt"), true)) {
+            out.write(line);
+            out.write('\n');
+        } catch (IOException e) {
+            System.err.println("[e2e] could not write report: " + e);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,230 @@
+package com.trader.stockadvisorai;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.*;
+
+public class ResumableUploaderTest {
+
+    private static final int CHUNK = 1024;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private MockWebServer server;
+    private FakeUploadServer backend;
+    private MemoryStore store;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        backend = new FakeUploadServer();
+        server = new MockWebServer();
+        server.setDispatcher(backend);
+        server.start();
+        store = new MemoryStore();
+        client = new OkHttpClient.Builder().retryOnConnectionFailure(false).build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void uploadsInChunksAndReturnsAnalysis() throws Exception {
+        File image = image(3 * CHUNK + 100);
+
+        String result = uploader().uploadAndAnalyze("job", image);
+
+        assertEquals("{\"stocks\": []}", result);
+        assertEquals(4, backend.puts.get());
+        assertEquals(image.length(), backend.data.size());
+        assertNull(store.uploadId("job"));
+    }
+
+    @Test
+    public void resumesFromLastAcknowledgedChunkAfterDrop() throws Exception {
+        File image = image(4 * CHUNK);
+        backend.dropPutNumber = 3;
+
+        try {
+            uploader().uploadAndAnalyze("job", image);
+            fail("Expected the dropped connection to fail the first attempt");
+        } catch (IOException expected) {
+            // connection dropped mid-upload
+        }
+        assertEquals(2L * CHUNK, store.offset("job"));
+        assertNotNull(store.uploadId("job"));
+
+        String result = uploader().uploadAndAnalyze("job", image);
+
+        assertEquals("{\"stocks\": []}", result);
+        assertEquals(1, backend.creates.get());
+        assertEquals(image.length(), backend.data.size());
+    }
+
+    @Test
+    public void continuesFromServerOffsetWhenAckWasLost() throws Exception {
+        File image = image(2 * CHUNK);
+        // The server stored the first chunk but the client never saw the ack
+        String id = "0123456789abcdef0123456789abcdef";
+        backend.id = id;
+        backend.data.write(new byte[CHUNK]);
+        store.save("job", id, 0);
+
+        uploader().uploadAndAnalyze("job", image);
+
+        assertEquals(1, backend.puts.get());
+        assertEquals(0, backend.creates.get());
+    }
+
+    @Test
+    public void analyzedContentIsServedByHashWithoutUploading() throws Exception {
+        File image = image(2 * CHUNK);
+        String hash = sha256(image);
+
+        assertNull(uploader().lookup(hash, null));
+
+        ResumableUploader.Analysis first = uploader().upload("job", image);
+        // The server names the result by what it received, not by anything the client claims
+        assertEquals(hash, first.digest);
+        assertNotNull(first.etag);
+        int putsAfterUpload = backend.puts.get();
+
+        ResumableUploader.Analysis again = uploader().lookup(first.digest, null);
+        assertEquals(first.json, again.json);
+        assertFalse(again.notModified);
+
+        ResumableUploader.Analysis revalidated = uploader().lookup(first.digest, first.etag);
+        assertTrue(revalidated.notModified);
+        assertNull(revalidated.json);
+        assertEquals(putsAfterUpload, backend.puts.get());
+    }
+
+    private static String sha256(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return ContentHash.sha256(in);
+        }
+    }
+
+    private ResumableUploader uploader() {
+        return new ResumableUploader(client, server.url("/"), store, CHUNK);
+    }
+
+    private File image(int size) throws IOException {
+        File file = tmp.newFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[size]);
+        }
+        return file;
+    }
+
+    /** Stand-in for the Flask resumable upload endpoints. */
+    private static class FakeUploadServer extends Dispatcher {
+        final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        final AtomicInteger creates = new AtomicInteger();
+        final AtomicInteger puts = new AtomicInteger();
+        final Map<String, String> results = new HashMap<>();
+        String id;
+        int dropPutNumber = -1;
+        private int putAttempts;
+
+        @Override
+        public synchronized MockResponse dispatch(RecordedRequest request) {
+            String path = request.getPath();
+            if (path.startsWith("/results/")) {
+                String hash = path.substring("/results/".length());
+                if (!results.containsKey(hash)) return json(404, "{\"error\": \"No fresh result\"}");
+                MockResponse hit = new MockResponse().setHeader("ETag", "\"" + hash.substring(0, 8) + "\"");
+                if (("\"" + hash.substring(0, 8) + "\"").equals(request.getHeader("If-None-Match"))) {
+                    return hit.setResponseCode(304);
+                }
+                return hit.setBody(results.get(hash));
+            }
+            if (path.equals("/uploads") && request.getMethod().equals("POST")) {
+                creates.incrementAndGet();
+                id = "0123456789abcdef0123456789abcdef";
+                data.reset();
+                return json(201, "{\"upload_id\": \"" + id + "\"}");
+            }
+            if (id == null || !path.startsWith("/uploads/" + id)) {
+                return json(404, "{\"error\": \"Unknown upload\"}");
+            }
+            if (path.endsWith("/analyze")) {
+                String hash = ContentHash.sha256(data.toByteArray());
+                results.put(hash, "{\"stocks\": []}");
+                return json(200, "{\"stocks\": []}")
+                        .setHeader(ResumableUploader.CONTENT_HASH_HEADER, hash)
+                        .setHeader("ETag", "\"" + hash.substring(0, 8) + "\"");
+            }
+            if (request.getMethod().equals("GET")) {
+                return json(200, "{\"received\": " + data.size() + "}");
+            }
+
+            if (++putAttempts == dropPutNumber) {
+                return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST);
+            }
+            long offset = Long.parseLong(request.getHeader("Upload-Offset"));
+            if (offset != data.size()) {
+                return json(409, "{\"received\": " + data.size() + "}");
+            }
+            puts.incrementAndGet();
+            data.write(request.getBody().readByteArray(), 0, (int) request.getBodySize());
+            return json(200, "{\"received\": " + data.size() + "}");
+        }
+
+        private static MockResponse json(int code, String body) {
+            return new MockResponse().setResponseCode(code).setBody(body);
+        }
+    }
+
+    private static class MemoryStore implements ResumableUploader.StateStore {
+        final Map<String, String> ids = new HashMap<>();
+        final Map<String, Long> offsets = new HashMap<>();
+
+        @Override
+        public String uploadId(String key) {
+            return ids.get(key);
+        }
+
+        @Override
+        public long offset(String key) {
+            Long offset = offsets.get(key);
+            return offset != null ? offset : 0;
+        }
+
+        @Override
+        public void save(String key, String uploadId, long offset) {
+            ids.put(key, uploadId);
+            offsets.put(key, offset);
+        }
+
+        @Override
+        public void clear(String key) {
+            ids.remove(key);
+            offsets.remove(key);
+        }
+    }
+}
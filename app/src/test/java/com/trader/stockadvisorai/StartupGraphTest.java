@@ -0,0 +1,67 @@
+package com.trader.stockadvisorai;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class StartupGraphTest {
+
+    @Test
+    public void dependenciesRunBeforeDependents() throws Exception {
+        List<String> order = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        StartupGraph graph = new StartupGraph()
+                .add("b", true, () -> order.add("b"), "a")
+                .add("a", false, () -> order.add("a"))
+                .add("c", false, () -> order.add("c"), "b");
+        graph.start(executor);
+
+        assertTrue(graph.awaitAll(5, TimeUnit.SECONDS));
+        assertEquals("a", order.get(0));
+        assertTrue(order.indexOf("b") < order.indexOf("c"));
+        assertEquals(3, graph.timings().size());
+        executor.shutdown();
+    }
+
+    @Test
+    public void criticalDoesNotWaitForBackgroundInitializers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        StartupGraph graph = new StartupGraph()
+                .add("auth", true, () -> { })
+                .add("slow", false, release::await);
+        graph.start(executor);
+
+        assertTrue(graph.awaitCritical(5, TimeUnit.SECONDS));
+        assertFalse(graph.awaitAll(50, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(graph.awaitAll(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    public void failedInitializerDoesNotBlockDependents() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        StartupGraph graph = new StartupGraph()
+                .add("broken", false, () -> { throw new IllegalStateException("boom"); })
+                .add("next", true, () -> { }, "broken");
+        graph.start(executor);
+
+        assertTrue(graph.awaitCritical(5, TimeUnit.SECONDS));
+        assertTrue(graph.failures().containsKey("broken"));
+        assertTrue(graph.timings().containsKey("next"));
+        executor.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownDependencyIsRejected() {
+        new StartupGraph().add("a", true, () -> { }, "missing").start(Runnable::run);
+    }
+}
@@ -0,0 +1,60 @@
+package com.trader.stockadvisorai;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import okio.Buffer;
+import okio.ByteString;
+
+import static org.junit.Assert.*;
+
+/** Fixtures were produced by the backend's cbor_encode. */
+public class StockCborDecoderTest {
+
+    private static final String TWO_STOCKS = "a16673746f636b7382a86673796d626f6c665443532e4e536d63757272656e745f7072696365"
+            + "fb40ae15199999999a687175616e746974790368696e766573746564fb40c68fd3333333336f7965737465726461795f636c6f7365"
+            + "fa456d80006f7072656469637465645f7072696365fa4573c40066616476696365634275796565787472618201a1616124a3667379"
+            + "6d626f6c664954432e4e536d63757272656e745f70726963651901b866616476696365f6";
+
+    private static List<StockResult> decode(String hex) throws IOException {
+        return StockCborDecoder.decode(new Buffer().write(ByteString.decodeHex(hex)));
+    }
+
+    @Test
+    public void decodesAllFieldsAndSkipsUnknownOnes() throws Exception {
+        List<StockResult> stocks = decode(TWO_STOCKS);
+
+        assertEquals(2, stocks.size());
+        assertEquals(new StockResult("TCS.NS", 3850.55, 3, 11551.65, 3800.0, 3900.25, "Buy"), stocks.get(0));
+        // Integer price, null advice
+        assertEquals(new StockResult("ITC.NS", 440, 0, 0, 0, 0, null), stocks.get(1));
+    }
+
+    @Test
+    public void decodesIndefiniteLengthsAndHalfFloats() throws Exception {
+        // {_ "stocks": [_ {_ "symbol": (_ "TCS", ".NS"), "current_price": 1.0 (float16)}]}
+        List<StockResult> stocks = decode("bf6673746f636b739fbf6673796d626f6c7f63544353632e4e53ff"
+                + "6d63757272656e745f7072696365f93c00ffffff");
+
+        assertEquals(1, stocks.size());
+        assertEquals("TCS.NS", stocks.get(0).symbol);
+        assertEquals(1.0, stocks.get(0).currentPrice, 0);
+    }
+
+    @Test
+    public void surfacesServerErrorMessage() {
+        try {
+            decode("a1656572726f72781a4e6f206166666f726461626c652073746f636b7320666f756e64");
+            fail("Expected the error payload to be rejected");
+        } catch (IOException e) {
+            assertEquals("No affordable stocks found", e.getMessage());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedInput() throws Exception {
+        decode(TWO_STOCKS.substring(0, 60));
+    }
+}
@@ -1,4 +1,4 @@
-from flask import Flask, request, jsonify
+from flask import Flask, request, jsonify, Response, stream_with_context
 from flask_cors import CORS, cross_origin
 import torch
 import torch.nn as nn
@@ -8,6 +8,17 @@ from sklearn.preprocessing import MinMaxScaler
 from PIL import Image
 import pytesseract
 import re
+import json
+import time
+import gzip
+import hashlib
+import struct
+import os
+import tempfile
+import uuid
+import zlib
+import threading
+from collections import OrderedDict
 import warnings
 
 # OPTIONAL: Suppress warnings
@@ -18,6 +29,88 @@ pytesseract.pytesseract.tesseract_cmd = r'C:\Program Files\Tesseract-OCR\tessera
 
 app = Flask(__name__)
 CORS(app, supports_credentials=True)
+# Bounds every request body, and a gzipped one after inflating too (see inflate_request)
+app.config["MAX_CONTENT_LENGTH"] = 16 * 1024 * 1024
+
+# ==== Wire Format Negotiation ====
+# Clients that send "Accept: application/cbor" get successful JSON bodies re-encoded as CBOR, and
+# "Accept-Encoding: gzip" compresses anything worth compressing. Every response advertises
+# "Accept-Encoding: gzip" (RFC 7694) so clients know gzipped request bodies are understood.
+GZIP_MIN_BYTES = 512
+
+def cbor_head(major, n):
+    if n < 24:
+        return bytes([major << 5 | n])
+    if n < 0x100:
+        return bytes([major << 5 | 24, n])
+    if n < 0x10000:
+        return bytes([major << 5 | 25]) + struct.pack(">H", n)
+    if n < 0x100000000:
+        return bytes([major << 5 | 26]) + struct.pack(">I", n)
+    return bytes([major << 5 | 27]) + struct.pack(">Q", n)
+
+def cbor_encode(value):
+    if value is None:
+        return b'\xf6'
+    if value is True:
+        return b'\xf5'
+    if value is False:
+        return b'\xf4'
+    if isinstance(value, int):
+        return cbor_head(0, value) if value >= 0 else cbor_head(1, -1 - value)
+    if isinstance(value, float):
+        # float32 when it round-trips exactly, otherwise float64
+        packed = struct.pack(">f", value)
+        if struct.unpack(">f", packed)[0] == value:
+            return b'\xfa' + packed
+        return b'\xfb' + struct.pack(">d", value)
+    if isinstance(value, str):
+        data = value.encode("utf-8")
+        return cbor_head(3, len(data)) + data
+    if isinstance(value, (list, tuple)):
+        return cbor_head(4, len(value)) + b''.join(cbor_encode(v) for v in value)
+    if isinstance(value, dict):
+        return cbor_head(5, len(value)) + b''.join(
+            cbor_encode(str(k)) + cbor_encode(v) for k, v in value.items())
+    raise TypeError(f"Cannot CBOR-encode {type(value).__name__}")
+
+@app.before_request
+def inflate_request():
+    if request.headers.get("Content-Encoding", "").lower() != "gzip":
+        return None
+    # Inflate at most one byte past the limit, so a small gzip bomb can't expand without bound
+    limit = app.config["MAX_CONTENT_LENGTH"]
+    inflater = zlib.decompressobj(16 + zlib.MAX_WBITS)
+    try:
+        body = inflater.decompress(request.get_data(cache=False), limit + 1)
+    except zlib.error:
+        return jsonify({"error": "Malformed gzip body"}), 400
+    if len(body) > limit:
+        return jsonify({"error": "Request body too large"}), 413
+    if not inflater.eof:
+        return jsonify({"error": "Truncated gzip body"}), 400
+    request._cached_data = body
+
+@app.after_request
+def compact_response(response):
+    response.headers["Accept-Encoding"] = "gzip"
+    if response.is_streamed or response.direct_passthrough or response.status_code != 200:
+        return response
+
+    if response.mimetype == "application/json" and "application/cbor" in request.headers.get("Accept", ""):
+        data = response.get_json(silent=True)
+        if data is not None:
+            response.set_data(cbor_encode(data))
+            response.mimetype = "application/cbor"
+        response.vary.add("Accept")
+
+    body = response.get_data()
+    if "gzip" in request.headers.get("Accept-Encoding", "") and "Content-Encoding" not in response.headers \
+            and len(body) >= GZIP_MIN_BYTES:
+        response.set_data(gzip.compress(body, compresslevel=6))
+        response.headers["Content-Encoding"] = "gzip"
+        response.vary.add("Accept-Encoding")
+    return response
 
 # ==== Model Definition ====
 SEQ_LEN = 60
@@ -59,6 +152,43 @@ def load_stock_data_yfinance(symbol):
 
     return last_seq, scaler, current_price, yesterday_price
 
+# ==== Helper to Predict One Portfolio Symbol ====
+def predict_symbol(symbol):
+    tried_symbols = [symbol + ".NS", symbol + ".BO", symbol]  # NSE → BSE → fallback
+    if symbol.endswith((".NS", ".BO")):
+        tried_symbols = [symbol]
+
+    for sym in tried_symbols:
+        try:
+            last_seq, scaler, current_price, yesterday_price = load_stock_data_yfinance(sym)
+            actual_symbol = sym
+            break
+        except Exception as e:
+            print(f"⚠️ Failed loading {sym}: {e}")
+            continue
+    else:
+        print(f"❌ Skipping {symbol} - no valid suffix worked")
+        return None
+
+    with torch.no_grad():
+        pred = model(last_seq)
+    predicted_price = scaler.inverse_transform(pred.numpy())[0][0]
+
+    if predicted_price > current_price * 1.01:
+        advice = "Buy"
+    elif predicted_price < current_price * 0.99:
+        advice = "Sell"
+    else:
+        advice = "Hold"
+
+    return {
+        "symbol": actual_symbol,
+        "current_price": round(float(current_price), 2),
+        "yesterday_close": round(float(yesterday_price), 2),
+        "predicted_price": round(float(predicted_price), 2),
+        "advice": advice
+    }
+
 # ==== /predict Endpoint ====
 @app.route("/predict", methods=["POST", "OPTIONS"])
 @cross_origin(origin='*', headers=['Content-Type', 'Authorization'])
@@ -102,62 +232,228 @@ def analyze_portfolio():
         return jsonify({'error': 'No image uploaded'}), 400
 
     image_file = request.files['image']
-    image = Image.open(image_file.stream)
-
+    digest = upload_digest(image_file.stream)
+    if NDJSON in request.headers.get("Accept", ""):
+        return stream_analysis(image_file.stream, digest)
+    return cache_result(analyze_image(image_file.stream), digest)
+
+def extract_portfolio_symbols(stream):
+    text = pytesseract.image_to_string(Image.open(stream))
+    matches = re.findall(r'\b[A-Z]{3,10}\b', text.upper())
+    blacklist = {"QTY", "AVG", "INVESTED", "LTP"}
+    symbols = list(set([m for m in matches if m not in blacklist]))
+    print("🧠 Extracted Symbols:", symbols)
+    return symbols
+
+def analyze_image(stream):
     try:
-        text = pytesseract.image_to_string(image)
-        matches = re.findall(r'\b[A-Z]{3,10}\b', text.upper())
-        blacklist = {"QTY", "AVG", "INVESTED", "LTP"}
-        symbols = list(set([m for m in matches if m not in blacklist]))
-
-        print("🧠 Extracted Symbols:", symbols)
+        symbols = extract_portfolio_symbols(stream)
 
         if not symbols:
             return jsonify({"error": "No stock symbols detected", "suggestions": []}), 404
 
         results = []
         for symbol in symbols:
-            tried_symbols = [symbol + ".NS", symbol + ".BO", symbol]  # NSE → BSE → fallback
-            data_loaded = False
-
-            for sym in tried_symbols:
-                try:
-                    last_seq, scaler, current_price, yesterday_price = load_stock_data_yfinance(sym)
-                    actual_symbol = sym
-                    data_loaded = True
-                    break
-                except Exception as e:
-                    print(f"⚠️ Failed loading {sym}: {e}")
-                    continue
+            result = predict_symbol(symbol)
+            if result:
+                results.append(result)
 
-            if not data_loaded:
-                print(f"❌ Skipping {symbol} - no valid suffix worked")
-                continue
+        return jsonify({"stocks": results})  # 🔥 fix key for Android app
 
-            with torch.no_grad():
-                pred = model(last_seq)
-            predicted_price = scaler.inverse_transform(pred.numpy())[0][0]
-
-            if predicted_price > current_price * 1.01:
-                advice = "Buy"
-            elif predicted_price < current_price * 0.99:
-                advice = "Sell"
-            else:
-                advice = "Hold"
-
-            results.append({
-                "symbol": actual_symbol,
-                "current_price": round(float(current_price), 2),
-                "yesterday_close": round(float(yesterday_price), 2),
-                "predicted_price": round(float(predicted_price), 2),
-                "advice": advice
-            })
+    except Exception as e:
+        print("🔥 Error in /analyze-portfolio:", str(e))
+        return jsonify({"error": str(e)}), 500
 
-        return jsonify({"stocks": results})  # 🔥 fix key for Android app
+# ==== Progressive Analysis ====
+# Clients that send "Accept: application/x-ndjson" get one stock per line as soon as it is
+# predicted, then a summary line {"done": true, "count": n, "etag": ...}. Anyone else gets the
+# one-shot JSON.
+NDJSON = "application/x-ndjson"
 
+def stream_analysis(stream, digest):
+    try:
+        symbols = extract_portfolio_symbols(stream)
     except Exception as e:
         print("🔥 Error in /analyze-portfolio:", str(e))
         return jsonify({"error": str(e)}), 500
+    if not symbols:
+        return jsonify({"error": "No stock symbols detected", "suggestions": []}), 404
+
+    def rows():
+        results = []
+        try:
+            for symbol in symbols:
+                result = predict_symbol(symbol)
+                if result:
+                    results.append(result)
+                    yield json.dumps(result) + "\n"
+        except Exception as e:
+            print("🔥 Error in /analyze-portfolio stream:", str(e))
+            yield json.dumps({"done": True, "count": len(results), "error": str(e)}) + "\n"
+            return
+        # A complete stream is remembered like a one-shot response, so /results/<hash> finds it,
+        # and its ETag goes in the summary since the headers are long gone
+        etag = store_result(digest, json.dumps({"stocks": results}).encode("utf-8"))
+        yield json.dumps({"done": True, "count": len(results), "etag": etag}) + "\n"
+
+    headers = {"Cache-Control": "no-cache", "X-Accel-Buffering": "no", CONTENT_HASH_HEADER: digest}
+    return Response(stream_with_context(rows()), mimetype=NDJSON, headers=headers)
+
+# ==== Resumable Uploads ====
+# POST /uploads -> {"upload_id"}; PUT /uploads/<id> with Upload-Offset appends a chunk;
+# GET /uploads/<id> -> {"received"}; POST /uploads/<id>/analyze runs the portfolio analysis.
+# An upload is deleted once analyzed; one abandoned half-way is swept after UPLOAD_TTL_SECONDS
+# without a chunk, and a client that comes back later just starts a new one (404 on GET).
+UPLOAD_DIR = os.path.join(tempfile.gettempdir(), "portfolio_uploads")
+UPLOAD_TTL_SECONDS = 24 * 60 * 60
+os.makedirs(UPLOAD_DIR, exist_ok=True)
+
+def sweep_uploads():
+    cutoff = time.time() - UPLOAD_TTL_SECONDS
+    for entry in os.scandir(UPLOAD_DIR):
+        try:
+            if entry.is_file() and entry.stat().st_mtime < cutoff:
+                os.remove(entry.path)
+        except OSError:
+            pass  # Analyzed or swept by another request meanwhile
+
+def upload_path(upload_id):
+    if not re.fullmatch(r'[0-9a-f]{32}', upload_id):
+        return None
+    return os.path.join(UPLOAD_DIR, upload_id)
+
+@app.route('/uploads', methods=['POST'])
+@cross_origin(origin='*')
+def create_upload():
+    sweep_uploads()
+    upload_id = uuid.uuid4().hex
+    open(os.path.join(UPLOAD_DIR, upload_id), 'wb').close()
+    return jsonify({"upload_id": upload_id, "received": 0}), 201
+
+@app.route('/uploads/<upload_id>', methods=['GET', 'PUT'])
+@cross_origin(origin='*')
+def upload_chunk(upload_id):
+    path = upload_path(upload_id)
+    if not path or not os.path.exists(path):
+        return jsonify({"error": "Unknown upload"}), 404
+
+    received = os.path.getsize(path)
+    if request.method == 'GET':
+        return jsonify({"received": received})
+
+    offset = int(request.headers.get("Upload-Offset", -1))
+    if offset != received:
+        # Client is out of sync (e.g. an ack was lost); tell it where to resume
+        return jsonify({"error": "Offset mismatch", "received": received}), 409
+
+    with open(path, 'ab') as f:
+        f.write(request.get_data())
+    return jsonify({"received": os.path.getsize(path)})
+
+@app.route('/uploads/<upload_id>/analyze', methods=['POST'])
+@cross_origin(origin='*')
+def analyze_upload(upload_id):
+    path = upload_path(upload_id)
+    if not path or not os.path.exists(path):
+        return jsonify({"error": "Unknown upload"}), 404
+
+    try:
+        with open(path, 'rb') as f:
+            digest = upload_digest(f)
+            response = analyze_image(f)
+    finally:
+        os.remove(path)
+    return cache_result(response, digest)
+
+# ==== Content-Addressed Results ====
+# Every analysis is remembered under the SHA-256 of the image bytes this server received, which is
+# sent back in X-Content-SHA256; GET /results/<hash> returns it again while fresh, or 304 when
+# If-None-Match already matches. The hash is never taken from the client, so nobody can file a
+# result under another image's hash.
+RESULT_TTL_SECONDS = 15 * 60
+MAX_CACHED_RESULTS = 256
+result_cache = OrderedDict()  # hash -> (etag, body bytes, computed_at)
+result_cache_lock = threading.Lock()
+
+CONTENT_HASH_HEADER = "X-Content-SHA256"
+
+def upload_digest(stream):
+    digest = hashlib.sha256()
+    for block in iter(lambda: stream.read(64 * 1024), b''):
+        digest.update(block)
+    stream.seek(0)
+    return digest.hexdigest()
+
+def cache_result(response, digest):
+    if isinstance(response, tuple) or response.status_code != 200:
+        return response
+
+    response.headers["ETag"] = store_result(digest, response.get_data())
+    response.headers[CONTENT_HASH_HEADER] = digest
+    return response
+
+def store_result(digest, body):
+    computed_at = time.time()
+    etag = f'"{digest[:16]}-{int(computed_at)}"'
+    with result_cache_lock:
+        result_cache[digest] = (etag, body, computed_at)
+        result_cache.move_to_end(digest)
+        while len(result_cache) > MAX_CACHED_RESULTS:
+            result_cache.popitem(last=False)
+    return etag
+
+@app.route('/results/<digest>', methods=['GET'])
+@cross_origin(origin='*')
+def cached_result(digest):
+    with result_cache_lock:
+        entry = result_cache.get(digest.lower())
+        if entry and time.time() - entry[2] > RESULT_TTL_SECONDS:
+            del result_cache[digest.lower()]
+            entry = None
+        if entry:
+            result_cache.move_to_end(digest.lower())
+    if not entry:
+        return jsonify({"error": "No fresh result"}), 404
+
+    etag, body, computed_at = entry
+    max_age = max(0, int(RESULT_TTL_SECONDS - (time.time() - computed_at)))
+    headers = {"ETag": etag, "Cache-Control": f"private, max-age={max_age}"}
+    if request.headers.get("If-None-Match") == etag:
+        return Response(status=304, headers=headers)
+    return Response(body, status=200, mimetype="application/json", headers=headers)
+
+# ==== /analyze-holdings Endpoint ====
+# Holdings already read on the device (ML Kit), so no image and no OCR here
+@app.route('/analyze-holdings', methods=['POST'])
+@cross_origin(origin='*')
+def analyze_holdings():
+    data = request.get_json(silent=True) or {}
+    holdings = data.get("holdings") or []
+    if not holdings:
+        return jsonify({"error": "No holdings provided"}), 400
+
+    results = []
+    for holding in holdings:
+        symbol = str(holding.get("symbol", "")).upper()
+        if not symbol:
+            continue
+        result = predict_symbol(symbol)
+        if not result:
+            continue
+
+        quantity = int(holding.get("quantity", 0))
+        avg_price = float(holding.get("avg_price", 0))
+        if quantity > 0:
+            result["quantity"] = quantity
+            if avg_price > 0:
+                result["invested"] = round(quantity * avg_price, 2)
+        results.append(result)
+
+    if not results:
+        return jsonify({"error": "No valid stock symbols", "stocks": []}), 404
+
+    return jsonify({"stocks": results})
+
 # ==== /extract-symbols Endpoint ====
 @app.route("/extract-symbols", methods=["POST"])
 @cross_origin(origin='*')
@@ -207,6 +503,7 @@ def suggest_stocks():
         ]
 
         affordable_stocks = []
+        candidates = []
         max_per_stock = budget / 5  # Only suggest stocks <= 20% of budget
 
         for symbol in stock_list:
@@ -215,6 +512,7 @@ def suggest_stocks():
                 if df.empty:
                     continue
                 price = float(df['Close'].iloc[-1])
+                candidates.append({"symbol": symbol, "current_price": price})
                 if price <= max_per_stock:
                     affordable_stocks.append((symbol, price))
             except:
@@ -242,11 +540,66 @@ def suggest_stocks():
         print("📩 Received budget:", budget)
         print("✅ Final Suggestions:", suggestions)
 
-        return jsonify({"stocks": suggestions})
+        # 🧮 Every stock priced today, unrounded, so the app can re-split any amount exactly
+        return jsonify({"stocks": suggestions, "candidates": candidates})
 
     except Exception as e:
         return jsonify({"error": str(e)}), 500
 
+# ==== Live Prices (Server-Sent Events) ====
+PRICE_POLL_SECONDS = 5
+HEARTBEAT_SECONDS = 15
+
+def latest_prices(symbols):
+    df = yf.download(symbols, period="1d", interval="1m", progress=False, group_by="ticker")
+    prices = {}
+    for symbol in symbols:
+        try:
+            closes = df[symbol]['Close'] if len(symbols) > 1 else df['Close']
+            closes = closes.dropna()
+            if not closes.empty:
+                prices[symbol] = round(float(closes.iloc[-1]), 2)
+        except Exception:
+            continue
+    return prices
+
+@app.route('/prices/stream', methods=['GET'])
+@cross_origin(origin='*')
+def price_stream():
+    symbols = [s for s in request.args.get("symbols", "").split(",") if s][:200]
+    if not symbols:
+        return jsonify({"error": "No symbols"}), 400
+
+    try:
+        event_id = int(request.headers.get("Last-Event-ID", 0))
+    except ValueError:
+        event_id = 0
+
+    def events():
+        nonlocal event_id
+        last_sent = {}
+        last_write = time.time()
+        yield "retry: 3000\n\n"
+        while True:
+            try:
+                prices = latest_prices(symbols)
+            except Exception:
+                prices = {}
+            # 📡 Only send symbols whose price moved since the last event
+            for symbol, price in prices.items():
+                if last_sent.get(symbol) != price:
+                    last_sent[symbol] = price
+                    event_id += 1
+                    last_write = time.time()
+                    yield f"id: {event_id}\ndata: {json.dumps({'symbol': symbol, 'price': price})}\n\n"
+            if time.time() - last_write >= HEARTBEAT_SECONDS:
+                last_write = time.time()
+                yield ": ping\n\n"
+            time.sleep(PRICE_POLL_SECONDS)
+
+    headers = {"Cache-Control": "no-cache", "X-Accel-Buffering": "no"}
+    return Response(stream_with_context(events()), mimetype="text/event-stream", headers=headers)
+
 # ==== Root Route ====
 @app.route("/")
 def home():
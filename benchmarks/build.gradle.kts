@@ -0,0 +1,52 @@
+// JVM-only JMH benchmarks for the pure-Java result code shared with :app.
+// Run with: ./gradlew :benchmarks:jmh  (optionally -Pjmh.include=Parse -Pjmh.args="-f 1")
+plugins {
+    java
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+// Compile the app's Android-free result classes directly so benchmarks always measure the shipped code
+sourceSets {
+    main {
+        java {
+            srcDir("src/main/java")
+            srcDir("../app/src/main/java")
+            include("com/trader/stockadvisorai/benchmarks/**")
+            include(
+                "com/trader/stockadvisorai/StockResult.java",
+                "com/trader/stockadvisorai/StockResponseParser.java",
+                "com/trader/stockadvisorai/StockResponseWriter.java",
+                "com/trader/stockadvisorai/SymbolTable.java",
+                "com/trader/stockadvisorai/ContentHash.java",
+                "com/trader/stockadvisorai/PortfolioSnapshot.java",
+                "com/trader/stockadvisorai/PortfolioIndex.java"
+            )
+        }
+    }
+}
+
+val jmhVersion = "1.37"
+
+dependencies {
+    implementation("com.google.code.gson:gson:2.10.1")
+    implementation("org.openjdk.jmh:jmh-core:$jmhVersion")
+    annotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks with the GC profiler (throughput + allocation rate)."
+    dependsOn("classes")
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+
+    val include = (project.findProperty("jmh.include") as String?) ?: ".*"
+    val extra = (project.findProperty("jmh.args") as String?)?.split(" ")?.filter { it.isNotBlank() } ?: emptyList()
+    val report = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+    doFirst { report.parentFile.mkdirs() }
+    args = listOf(include, "-prof", "gc", "-rf", "json", "-rff", report.absolutePath) + extra
+}
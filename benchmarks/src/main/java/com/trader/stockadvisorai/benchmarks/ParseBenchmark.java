@@ -0,0 +1,54 @@
+package com.trader.stockadvisorai.benchmarks;
+
+import com.trader.stockadvisorai.StockResponseParser;
+import com.trader.stockadvisorai.StockResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Parsing a whole {@code stocks} payload, from a String (Intent extra) and from a byte stream (HTTP body). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private String json;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        json = StockPayloads.json(size, 42);
+        bytes = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<StockResult> parseString() throws IOException {
+        return StockResponseParser.parse(json);
+    }
+
+    @Benchmark
+    public List<StockResult> parseStream() throws IOException {
+        return StockResponseParser.parse(new ByteArrayInputStream(bytes));
+    }
+}
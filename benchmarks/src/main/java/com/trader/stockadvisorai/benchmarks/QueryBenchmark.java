@@ -0,0 +1,66 @@
+package com.trader.stockadvisorai.benchmarks;
+
+import com.trader.stockadvisorai.PortfolioIndex;
+import com.trader.stockadvisorai.PortfolioSnapshot;
+import com.trader.stockadvisorai.SymbolTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Dashboard search bar: one keystroke or sort change must fit well inside a 16 ms frame. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private PortfolioSnapshot snapshot;
+    private PortfolioIndex index;
+    private int[] out;
+
+    @Setup
+    public void setUp() {
+        snapshot = PortfolioSnapshot.of("bench", StockPayloads.stocks(size, 42), new SymbolTable());
+        index = PortfolioIndex.build(snapshot);
+        out = new int[size];
+        // Materialize the lazily built price orders so queries measure steady state
+        index.query("", null, PortfolioIndex.Sort.PRICE, false, out);
+        index.query("", null, PortfolioIndex.Sort.UPSIDE, false, out);
+    }
+
+    @Benchmark
+    public PortfolioIndex buildIndex() {
+        return PortfolioIndex.build(snapshot);
+    }
+
+    @Benchmark
+    public int typeAheadSortedByUpside() {
+        return index.query("HD", null, PortfolioIndex.Sort.UPSIDE, true, out);
+    }
+
+    @Benchmark
+    public int filterAdviceSortedByPrice() {
+        return index.query("", "Buy", PortfolioIndex.Sort.PRICE, false, out);
+    }
+
+    @Benchmark
+    public int typeAheadBySymbol() {
+        return index.query("H", null, PortfolioIndex.Sort.SYMBOL, false, out);
+    }
+}
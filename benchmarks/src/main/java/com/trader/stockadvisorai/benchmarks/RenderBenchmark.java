@@ -0,0 +1,54 @@
+package com.trader.stockadvisorai.benchmarks;
+
+import com.trader.stockadvisorai.StockResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Per-result work done by the dashboard after parsing: card text and history entries. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private List<StockResult> stocks;
+
+    @Setup
+    public void setUp() {
+        stocks = StockPayloads.stocks(size, 42);
+    }
+
+    @Benchmark
+    public void displayText(Blackhole blackhole) {
+        for (StockResult stock : stocks) {
+            blackhole.consume(stock.toDisplayText());
+        }
+    }
+
+    @Benchmark
+    public void historyEntries(Blackhole blackhole) {
+        long now = 1_700_000_000_000L;
+        for (StockResult stock : stocks) {
+            blackhole.consume(stock.toHistoryEntry("bench-user", now));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.trader.stockadvisorai.benchmarks;
+
+import com.trader.stockadvisorai.StockResponseWriter;
+import com.trader.stockadvisorai.StockResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic {@code {"stocks": [...]}} payloads with the same fields the Flask backend returns.
+ * Seeded, so every fork measures identical input.
+ */
+public final class StockPayloads {
+
+    private static final String[] ADVICE = {"Buy", "Sell", "Hold", StockResult.NO_ADVICE};
+
+    private StockPayloads() {}
+
+    public static List<StockResult> stocks(int count, long seed) {
+        Random random = new Random(seed);
+        List<StockResult> stocks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double price = round2(20 + random.nextDouble() * 4_000);
+            int quantity = 1 + random.nextInt(500);
+            double yesterday = round2(price * (0.95 + random.nextDouble() * 0.1));
+            double predicted = round2(price * (0.9 + random.nextDouble() * 0.2));
+            stocks.add(new StockResult(symbol(random, i), price, quantity, round2(price * quantity),
+                    yesterday, predicted, ADVICE[random.nextInt(ADVICE.length)]));
+        }
+        return stocks;
+    }
+
+    public static String json(int count, long seed) {
+        return StockResponseWriter.toJson(stocks(count, seed));
+    }
+
+    // NSE-style tickers such as "HDFCBANK.NS"; the index suffix keeps them unique
+    private static String symbol(Random random, int index) {
+        int length = 3 + random.nextInt(7);
+        StringBuilder sb = new StringBuilder(length + 8);
+        for (int i = 0; i < length; i++) sb.append((char) ('A' + random.nextInt(26)));
+        return sb.append(index).append(".NS").toString();
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
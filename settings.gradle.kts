@@ -20,3 +20,4 @@ dependencyResolutionManagement {
 
 rootProject.name = "StockAdvisorAI"
 include(":app")
+include(":benchmarks")